@@ -0,0 +1,109 @@
+package app.benchmark;
+
+import app.common.event.TaskStatusEventCodec;
+import app.event.TaskUpdatedStatusEvent;
+import app.kafka.MessageDeserializer;
+import app.kafka.TaskUpdatedStatusEventDeserializer;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.kafka.support.mapping.AbstractJavaTypeMapper;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Consumer-side cost of MessageDeserializer configured as in KafkaConfig: type taken from the
+ * __TypeId__ header written by TaskService, app.event trusted. {@code deserializeMalformed} covers the
+ * failure path (exception, WARN log, rethrow to ErrorHandlingDeserializer). The {@code binary} benchmarks read the
+ * Common codec format through TaskUpdatedStatusEventDeserializer, which KafkaConfig now uses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageDeserializerBenchmark {
+
+    private static final String TOPIC = "task-status-update-event-topic";
+    private static final String[] STATUSES = {"Active", "Processing", "Completed"};
+
+    @Param({"100", "1000"})
+    public int batchSize;
+
+    private MessageDeserializer<TaskUpdatedStatusEvent> deserializer;
+    private Headers headers;
+    private byte[] payload;
+    private List<byte[]> payloads;
+    private byte[] malformed;
+    private TaskUpdatedStatusEventDeserializer binaryDeserializer;
+    private List<byte[]> binaryPayloads;
+
+    @Setup
+    public void setUp() {
+        deserializer = new MessageDeserializer<>();
+        deserializer.configure(Map.of(JsonDeserializer.TRUSTED_PACKAGES, "app.event"), false);
+
+        headers = new RecordHeaders();
+        headers.add(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME,
+                TaskUpdatedStatusEvent.class.getName().getBytes(StandardCharsets.UTF_8));
+
+        payloads = IntStream.range(0, batchSize)
+                .mapToObj(id -> ("{\"taskId\":" + id + ",\"status\":\"" + STATUSES[id % STATUSES.length] + "\"}")
+                        .getBytes(StandardCharsets.UTF_8))
+                .toList();
+        payload = payloads.get(0);
+        malformed = "{\"taskId\":1,\"status\":".getBytes(StandardCharsets.UTF_8);
+
+        binaryDeserializer = new TaskUpdatedStatusEventDeserializer();
+        binaryDeserializer.configure(Map.of(JsonDeserializer.TRUSTED_PACKAGES, "app.event"), false);
+        binaryPayloads = IntStream.range(0, batchSize)
+                .mapToObj(id -> TaskStatusEventCodec.encode(id, STATUSES[id % STATUSES.length]))
+                .toList();
+    }
+
+    @TearDown
+    public void tearDown() {
+        deserializer.close();
+        binaryDeserializer.close();
+    }
+
+    @Benchmark
+    public TaskUpdatedStatusEvent deserialize() {
+        return deserializer.deserialize(TOPIC, headers, payload);
+    }
+
+    @Benchmark
+    public void deserializeBatch(Blackhole blackhole) {
+        for (byte[] data : payloads) {
+            blackhole.consume(deserializer.deserialize(TOPIC, headers, data));
+        }
+    }
+
+    @Benchmark
+    public Object deserializeMalformed() {
+        try {
+            return deserializer.deserialize(TOPIC, headers, malformed);
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public TaskUpdatedStatusEvent deserializeBinary() {
+        return binaryDeserializer.deserialize(TOPIC, new RecordHeaders(), binaryPayloads.get(0));
+    }
+
+    @Benchmark
+    public void deserializeBinaryBatch(Blackhole blackhole) {
+        for (byte[] data : binaryPayloads) {
+            blackhole.consume(binaryDeserializer.deserialize(TOPIC, new RecordHeaders(), data));
+        }
+    }
+}
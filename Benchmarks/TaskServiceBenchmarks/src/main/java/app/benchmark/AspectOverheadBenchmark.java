@@ -0,0 +1,107 @@
+package app.benchmark;
+
+import app.common.aspect.LoggingAspect;
+import app.common.aspect.MetricsAspect;
+import app.common.aspect.annotation.CustomLogging;
+import app.dto.TaskDto;
+import app.entity.Status;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.util.ReflectionUtils;
+
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+// Накладные расходы режимов log и metrics на вызов метода, возвращающего страницу из 100 DTO.
+// log-payload - прежнее поведение с выводом результата через toString
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AspectOverheadBenchmark {
+
+    @Param({"none", "log", "log-payload", "metrics", "metrics-sampled"})
+    public String mode;
+
+    private TaskPage page;
+
+    @Setup
+    public void setUp() {
+        // Логи пишутся через encoder в пустой поток: измеряется форматирование, а не консоль
+        configureLogging("log-payload".equals(mode) ? Level.DEBUG : Level.INFO);
+
+        TaskPage target = new TaskPage();
+        if ("none".equals(mode)) {
+            page = target;
+            return;
+        }
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        if (mode.startsWith("log")) {
+            factory.addAspect(new LoggingAspect());
+        } else {
+            MetricsAspect aspect = new MetricsAspect(new SimpleMeterRegistry());
+            Field histogram = ReflectionUtils.findField(MetricsAspect.class, "histogram");
+            ReflectionUtils.makeAccessible(histogram);
+            ReflectionUtils.setField(histogram, aspect, true);
+            factory.addAspect(aspect);
+        }
+        page = factory.getProxy();
+    }
+
+    @Benchmark
+    public List<TaskDto> call() {
+        return "metrics-sampled".equals(mode) ? page.listSampled() : page.list();
+    }
+
+    private static void configureLogging(Level level) {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        Logger root = context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        root.detachAndStopAllAppenders();
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d %-5level [%thread] %logger{36} - %msg%n");
+        encoder.start();
+
+        OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+        appender.setContext(context);
+        appender.setEncoder(encoder);
+        appender.setOutputStream(OutputStream.nullOutputStream());
+        appender.start();
+
+        root.addAppender(appender);
+        root.setLevel(Level.WARN);
+        context.getLogger(LoggingAspect.class).setLevel(level);
+    }
+
+    @CustomLogging
+    public static class TaskPage {
+
+        private final List<TaskDto> tasks = LongStream.range(0, 100)
+                .mapToObj(id -> new TaskDto(id, "title " + id, "description " + id, Status.Active, id % 10, 0L))
+                .toList();
+
+        public List<TaskDto> list() {
+            return tasks;
+        }
+
+        @CustomLogging(sampleRate = 0.1)
+        public List<TaskDto> listSampled() {
+            return tasks;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package app.benchmark;
+
+import app.entity.Status;
+import app.event.TaskUpdatedStatusEvent;
+import app.kafka.config.KafkaProducerConfiguration;
+import app.kafka.config.ProducerThroughputProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Events per second of the status event producer exactly as TaskService builds it: producer settings come from
+ * the shipped application.yml (binary serializer, acks=all, idempotence) and, for {@code profile=throughput},
+ * application-throughput.yml, and go through KafkaProducerConfiguration. Each operation sends a batch
+ * asynchronously and waits for all acks. Needs a running broker:
+ * {@code java -Dbenchmark.bootstrapServers=localhost:9092 -jar benchmarks.jar ProducerThroughputBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProducerThroughputBenchmark {
+
+    private static final int BATCH = 10_000;
+    private static final Status[] STATUSES = Status.values();
+
+    @Param({"default", "throughput"})
+    public String profile;
+
+    private ProducerFactory<String, TaskUpdatedStatusEvent> producerFactory;
+    private KafkaTemplate<String, TaskUpdatedStatusEvent> template;
+    private String topic;
+    private long nextTaskId;
+
+    @Setup
+    public void setUp() {
+        StandardEnvironment environment = new StandardEnvironment();
+        addYaml(environment, "application.yml");
+        if ("throughput".equals(profile)) {
+            addYaml(environment, "application-" + profile + ".yml");
+        }
+        environment.getPropertySources().addFirst(new MapPropertySource("benchmark", Map.of(
+                "spring.kafka.producer.bootstrap-servers", System.getProperty("benchmark.bootstrapServers", "localhost:9092"))));
+
+        Binder binder = Binder.get(environment);
+        ProducerThroughputProperties throughputProperties = binder.bindOrCreate("kafka.producer.throughput", ProducerThroughputProperties.class);
+        KafkaProducerConfiguration configuration = new KafkaProducerConfiguration(environment, throughputProperties, new ObjectMapper());
+        producerFactory = configuration.producerTaskFactory();
+        template = configuration.kafkaTemplate(producerFactory);
+        topic = environment.getRequiredProperty("spring.kafka.producer.topics[0].name");
+    }
+
+    @TearDown
+    public void tearDown() {
+        ((DefaultKafkaProducerFactory<String, TaskUpdatedStatusEvent>) producerFactory).destroy();
+    }
+
+    // Ключ - id задачи, как у KeyStrategy сервиса: события расходятся по партициям
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void send() {
+        CompletableFuture<?>[] acks = new CompletableFuture<?>[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            long taskId = nextTaskId++;
+            acks[i] = template.send(topic, String.valueOf(taskId), new TaskUpdatedStatusEvent(taskId, STATUSES[(int) (taskId % STATUSES.length)]));
+        }
+        CompletableFuture.allOf(acks).join();
+    }
+
+    // Позже добавленный источник перекрывает ранние, как профиль перекрывает application.yml
+    private static void addYaml(StandardEnvironment environment, String name) {
+        try {
+            List<PropertySource<?>> sources = new YamlPropertySourceLoader().load(name, new ClassPathResource(name));
+            sources.forEach(source -> environment.getPropertySources().addFirst(source));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package app.benchmark;
+
+import app.entity.Status;
+import app.event.TaskUpdatedStatusEvent;
+import app.kafka.serde.TaskUpdatedStatusEventSerializer;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Producer-side cost of the value serializer: the binary TaskUpdatedStatusEventSerializer configured in
+ * TaskService against the previous JsonSerializer with type headers, as KafkaTemplate calls them for every record.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskEventSerializationBenchmark {
+
+    private static final String TOPIC = "task-status-update-event-topic";
+
+    @Param({"100", "1000"})
+    public int batchSize;
+
+    private JsonSerializer<TaskUpdatedStatusEvent> serializer;
+    private final TaskUpdatedStatusEventSerializer binarySerializer = new TaskUpdatedStatusEventSerializer();
+    private TaskUpdatedStatusEvent event;
+    private List<TaskUpdatedStatusEvent> events;
+
+    @Setup
+    public void setUp() {
+        serializer = new JsonSerializer<>();
+        events = LongStream.range(0, batchSize)
+                .mapToObj(id -> new TaskUpdatedStatusEvent(id, Status.values()[(int) (id % Status.values().length)]))
+                .toList();
+        event = events.get(0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        serializer.close();
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(TOPIC, new RecordHeaders(), event);
+    }
+
+    @Benchmark
+    public void serializeBatch(Blackhole blackhole) {
+        for (TaskUpdatedStatusEvent e : events) {
+            blackhole.consume(serializer.serialize(TOPIC, new RecordHeaders(), e));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeBinary() {
+        return binarySerializer.serialize(TOPIC, new RecordHeaders(), event);
+    }
+
+    @Benchmark
+    public void serializeBinaryBatch(Blackhole blackhole) {
+        for (TaskUpdatedStatusEvent e : events) {
+            blackhole.consume(binarySerializer.serialize(TOPIC, new RecordHeaders(), e));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package app.benchmark;
+
+import app.dto.TaskDto;
+import app.entity.Task;
+import app.mapper.task.TaskMapper;
+import app.mapper.task.TaskMapperImpl;
+import org.hibernate.FlushMode;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One page of the list endpoints against a seeded database: managed Task entities loaded in a read-write transaction
+ * and mapped by MapStruct, as getList did before, against a read-only transaction selecting straight into TaskDto.
+ * SampleTime reports p99 per page, the gc profiler of BenchmarkRunner the bytes allocated per page:
+ * {@code java -Dbenchmark.jdbcUrl=jdbc:postgresql://localhost:5432/aop_db -Dbenchmark.user=aop -Dbenchmark.password=aop
+ * -jar benchmarks.jar TaskListQueryBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx512m")
+public class TaskListQueryBenchmark {
+
+    private static final String ENTITY_QUERY = "select t from Task t where t.id > :afterId order by t.id";
+    private static final String DTO_QUERY = "select new app.dto.TaskDto(t.id, t.title, t.description, t.status, t.userId, t.version)"
+            + " from Task t where t.id > :afterId order by t.id";
+
+    @Param({"100", "1000"})
+    public int pageSize;
+
+    private final TaskMapper taskMapper = new TaskMapperImpl();
+    private SessionFactory sessionFactory;
+    private long maxId;
+
+    @Setup
+    public void setUp() {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(Task.class)
+                .setProperty(AvailableSettings.JAKARTA_JDBC_URL, System.getProperty("benchmark.jdbcUrl", "jdbc:postgresql://localhost:5432/aop_db"))
+                .setProperty(AvailableSettings.JAKARTA_JDBC_USER, System.getProperty("benchmark.user", "aop"))
+                .setProperty(AvailableSettings.JAKARTA_JDBC_PASSWORD, System.getProperty("benchmark.password", "aop"))
+                .setProperty(AvailableSettings.POOL_SIZE, "1")
+                .buildSessionFactory();
+        maxId = sessionFactory.fromSession(session -> session.createSelectionQuery("select max(t.id) from Task t", Long.class).getSingleResult());
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    // Снимок каждой сущности для dirty checking и проверка при commit входят в замер, как в прежнем @Transactional
+    @Benchmark
+    public List<TaskDto> entities() {
+        long afterId = afterId();
+        return sessionFactory.fromTransaction(session -> taskMapper.toDto(session.createSelectionQuery(ENTITY_QUERY, Task.class)
+                .setParameter("afterId", afterId)
+                .setMaxResults(pageSize)
+                .getResultList()));
+    }
+
+    // readOnly-транзакция Spring переводит сессию в MANUAL flush и read-only
+    @Benchmark
+    public List<TaskDto> projection() {
+        long afterId = afterId();
+        return sessionFactory.fromTransaction(session -> {
+            session.setHibernateFlushMode(FlushMode.MANUAL);
+            session.setDefaultReadOnly(true);
+            return session.createSelectionQuery(DTO_QUERY, TaskDto.class)
+                    .setParameter("afterId", afterId)
+                    .setMaxResults(pageSize)
+                    .getResultList();
+        });
+    }
+
+    private long afterId() {
+        return ThreadLocalRandom.current().nextLong(Math.max(1, maxId - pageSize));
+    }
+}
@@ -0,0 +1,56 @@
+package app.benchmark;
+
+import app.dto.TaskDto;
+import app.entity.Status;
+import app.entity.Task;
+import app.mapper.task.TaskMapper;
+import app.mapper.task.TaskMapperImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskMapperBenchmark {
+
+    @Param({"1", "100", "1000"})
+    public int size;
+
+    private final TaskMapper taskMapper = new TaskMapperImpl();
+    private Task task;
+    private List<Task> tasks;
+
+    @Setup
+    public void setUp() {
+        tasks = LongStream.range(0, size)
+                .mapToObj(TaskMapperBenchmark::task)
+                .toList();
+        task = tasks.get(0);
+    }
+
+    @Benchmark
+    public TaskDto toDto() {
+        return taskMapper.toDto(task);
+    }
+
+    @Benchmark
+    public List<TaskDto> toDtoList() {
+        return taskMapper.toDto(tasks);
+    }
+
+    private static Task task(long id) {
+        return Task.builder()
+                .id(id)
+                .title("title " + id)
+                .description("description of task " + id)
+                .status(Status.values()[(int) (id % Status.values().length)])
+                .userId(id % 100)
+                .build();
+    }
+}
@@ -0,0 +1,49 @@
+package app.common.aspect;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.*;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Component
+@Aspect
+@Slf4j
+@ConditionalOnProperty(value = "aspect.mode", havingValue = "log", matchIfMissing = true)
+public class LoggingAspect {
+
+    // Advice для логирования перед выполнением метода
+    @Before("@within(app.common.aspect.annotation.CustomLogging) || @annotation(app.common.aspect.annotation.CustomLogging)")
+    public void logBefore(JoinPoint joinPoint) {
+        log.info("Вызов метода: {}", joinPoint.getSignature().getName());
+    }
+
+    // Advice для логирования после успешного выполнения метода
+    @AfterReturning(pointcut = "@within(app.common.aspect.annotation.CustomLogging) || @annotation(app.common.aspect.annotation.CustomLogging)", returning = "result")
+    public void logAfterReturning(JoinPoint joinPoint, Object result) {
+        // toString результата (например, списка DTO) дорогой, поэтому только на DEBUG
+        if (log.isDebugEnabled()) {
+            log.debug("Метод {} завершился успешно с результатом: {}", joinPoint.getSignature().getName(), result);
+        } else {
+            log.info("Метод {} завершился успешно", joinPoint.getSignature().getName());
+        }
+    }
+
+    // Advice для логирования в случае исключения
+    @AfterThrowing(pointcut = "@within(app.common.aspect.annotation.CustomLogging) || @annotation(app.common.aspect.annotation.CustomLogging)", throwing = "error")
+    public void logAfterThrowing(JoinPoint joinPoint, Throwable error) {
+        log.error("Метод {} завершился с ошибкой: {}", joinPoint.getSignature().getName(), error.getMessage());
+    }
+
+    // Advice для замера времени выполнения метода
+    @Around("@within(app.common.aspect.annotation.CustomLogging) || @annotation(app.common.aspect.annotation.CustomLogging)")
+    public Object logAround(ProceedingJoinPoint joinPoint) throws Throwable {
+        long startTime = System.nanoTime();
+        Object result = joinPoint.proceed(); // Вызов метода, исключение логирует logAfterThrowing и пробрасывается дальше
+        long totalTime = System.nanoTime() - startTime;
+        log.info("Метод {} выполнен за {} мкс", joinPoint.getSignature().getName(), totalTime / 1_000);
+        return result;
+    }
+}
+
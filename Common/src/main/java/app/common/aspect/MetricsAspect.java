@@ -0,0 +1,90 @@
+package app.common.aspect;
+
+import app.common.aspect.annotation.CustomLogging;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@Aspect
+@RequiredArgsConstructor
+@ConditionalOnProperty(value = "aspect.mode", havingValue = "metrics")
+public class MetricsAspect {
+
+    public static final String TIMER_NAME = "custom.logging.method";
+
+    @Value("${aspect.metrics.histogram:true}")
+    private boolean histogram;
+
+    private final MeterRegistry meterRegistry;
+    // Поиск таймера в реестре на каждый вызов дороже самого замера, поэтому таймеры кэшируются по методу
+    private final ConcurrentMap<MethodKey, MethodTimers> timers = new ConcurrentHashMap<>();
+
+    // Без логирования аргументов и результата: на горячем пути только nanoTime и запись в таймер
+    @Around("@within(app.common.aspect.annotation.CustomLogging) || @annotation(app.common.aspect.annotation.CustomLogging)")
+    public Object timeAround(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Class<?> targetClass = joinPoint.getTarget() == null ? method.getDeclaringClass() : joinPoint.getTarget().getClass();
+        MethodTimers methodTimers = timers.computeIfAbsent(new MethodKey(targetClass, method), this::register);
+
+        // При sampleRate < 1 count таймера - число замеренных вызовов, а не всех
+        if (methodTimers.sampleRate() < 1.0 && ThreadLocalRandom.current().nextDouble() >= methodTimers.sampleRate()) {
+            return joinPoint.proceed();
+        }
+
+        long start = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+            methodTimers.success().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (Throwable throwable) {
+            timer(methodTimers.className(), methodTimers.methodName(), throwable.getClass().getSimpleName())
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw throwable;
+        }
+    }
+
+    private MethodTimers register(MethodKey key) {
+        Method method = AopUtils.getMostSpecificMethod(key.method(), key.targetClass());
+        CustomLogging annotation = AnnotatedElementUtils.findMergedAnnotation(method, CustomLogging.class);
+        if (annotation == null) {
+            annotation = AnnotatedElementUtils.findMergedAnnotation(key.targetClass(), CustomLogging.class);
+        }
+        String className = key.targetClass().getSimpleName();
+        String methodName = key.method().getName();
+        return new MethodTimers(className, methodName, annotation == null ? 1.0 : annotation.sampleRate(),
+                timer(className, methodName, "none"));
+    }
+
+    // Для исключений таймер ищется в реестре: путь редкий, а тег exception заранее неизвестен
+    private Timer timer(String className, String methodName, String exception) {
+        return Timer.builder(TIMER_NAME)
+                .description("Execution time of @CustomLogging methods")
+                .tag("class", className)
+                .tag("method", methodName)
+                .tag("exception", exception)
+                .publishPercentileHistogram(histogram)
+                .register(meterRegistry);
+    }
+
+    private record MethodKey(Class<?> targetClass, Method method) {
+    }
+
+    private record MethodTimers(String className, String methodName, double sampleRate, Timer success) {
+    }
+}
@@ -0,0 +1,14 @@
+package app.common.aspect.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CustomLogging {
+
+    // Доля вызовов, попадающих в таймер в режиме metrics: 1.0 - каждый вызов, 0.1 - каждый десятый в среднем
+    double sampleRate() default 1.0;
+}
@@ -0,0 +1,26 @@
+package app.common.event;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Kafka headers of task events. {@code task-event-version} is the id of the outbox row the event was relayed from:
+ * it grows with every change and, together with task id and status, identifies an event across redeliveries.
+ */
+public final class TaskEventHeaders {
+
+    public static final String VERSION = "task-event-version";
+
+    private TaskEventHeaders() {
+    }
+
+    public static byte[] encodeVersion(long version) {
+        return ByteBuffer.allocate(Long.BYTES).putLong(version).array();
+    }
+
+    public static long decodeVersion(byte[] value) {
+        if (value == null || value.length != Long.BYTES) {
+            throw new IllegalArgumentException("Invalid " + VERSION + " header");
+        }
+        return ByteBuffer.wrap(value).getLong();
+    }
+}
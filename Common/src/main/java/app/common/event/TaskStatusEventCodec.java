@@ -0,0 +1,73 @@
+package app.common.event;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * Fixed-layout binary format of the task status event, shared by producer and consumers.
+ * <pre>
+ * offset 0  version   1 byte  (VERSION_1)
+ * offset 1  taskId    8 bytes big-endian
+ * offset 9  status    1 byte  (code from STATUSES, 0 = no status)
+ * </pre>
+ * A JSON record starts with '{', so the first byte also tells binary records from legacy JSON ones.
+ * Status names are returned as the constants below, decoding allocates nothing.
+ */
+public final class TaskStatusEventCodec {
+
+    public static final byte VERSION_1 = 1;
+    public static final int SIZE = 10;
+
+    // Коды статусов - часть формата: новые статусы только добавляются в конец, существующие не переставляются
+    private static final String[] STATUSES = {null, "Active", "Processing", "Completed"};
+
+    private static final VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    private TaskStatusEventCodec() {
+    }
+
+    public static byte[] encode(long taskId, String status) {
+        byte[] data = new byte[SIZE];
+        data[0] = VERSION_1;
+        LONG.set(data, 1, taskId);
+        data[9] = code(status);
+        return data;
+    }
+
+    public static boolean isBinary(byte[] data) {
+        return data != null && data.length > 0 && data[0] == VERSION_1;
+    }
+
+    public static long taskId(byte[] data) {
+        checkLayout(data);
+        return (long) LONG.get(data, 1);
+    }
+
+    public static String status(byte[] data) {
+        checkLayout(data);
+        int code = data[9];
+        if (code < 0 || code >= STATUSES.length) {
+            throw new IllegalArgumentException("Unknown task status code " + code);
+        }
+        return STATUSES[code];
+    }
+
+    private static byte code(String status) {
+        if (status == null) {
+            return 0;
+        }
+        return switch (status) {
+            case "Active" -> 1;
+            case "Processing" -> 2;
+            case "Completed" -> 3;
+            default -> throw new IllegalArgumentException("Unknown task status " + status);
+        };
+    }
+
+    private static void checkLayout(byte[] data) {
+        if (data == null || data.length != SIZE || data[0] != VERSION_1) {
+            throw new IllegalArgumentException("Not a version " + VERSION_1 + " task status event");
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package app.common.event;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskStatusEventCodecTests {
+
+    @Test
+    void roundTrip() {
+        byte[] data = TaskStatusEventCodec.encode(Long.MAX_VALUE, "Processing");
+
+        assertEquals(TaskStatusEventCodec.SIZE, data.length);
+        assertTrue(TaskStatusEventCodec.isBinary(data));
+        assertEquals(Long.MAX_VALUE, TaskStatusEventCodec.taskId(data));
+        assertSame("Processing", TaskStatusEventCodec.status(data));
+    }
+
+    @Test
+    void nullStatus() {
+        assertNull(TaskStatusEventCodec.status(TaskStatusEventCodec.encode(1L, null)));
+    }
+
+    @Test
+    void legacyJsonIsNotBinary() {
+        assertFalse(TaskStatusEventCodec.isBinary("{\"taskId\":1,\"status\":\"Active\"}".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void rejectsUnknownValues() {
+        assertThrows(IllegalArgumentException.class, () -> TaskStatusEventCodec.encode(1L, "Archived"));
+
+        byte[] data = TaskStatusEventCodec.encode(1L, "Active");
+        data[9] = 42;
+        assertThrows(IllegalArgumentException.class, () -> TaskStatusEventCodec.status(data));
+        assertThrows(IllegalArgumentException.class, () -> TaskStatusEventCodec.taskId(new byte[]{TaskStatusEventCodec.VERSION_1}));
+    }
+}
@@ -0,0 +1,22 @@
+package app.controller;
+
+import app.dto.ReplayResultDto;
+import app.kafka.retry.DeadLetterReplayer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/dlt")
+@RequiredArgsConstructor
+public class DeadLetterController {
+
+    private final DeadLetterReplayer deadLetterReplayer;
+
+    @PostMapping("/replay")
+    public ReplayResultDto replay(@RequestParam(required = false, defaultValue = "100") int limit) {
+        return new ReplayResultDto(deadLetterReplayer.replay(limit));
+    }
+}
@@ -0,0 +1,163 @@
+package app.dedup;
+
+import app.common.event.TaskEventHeaders;
+import app.event.TaskUpdatedStatusEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Events whose notification was already sent, keyed by task id + status + version, so that redelivered records
+ * do not produce duplicate emails. Lookups are served from memory; the map is bounded by max-entries (oldest
+ * first) and by ttl. Every delivered batch is appended to a journal, a periodic compaction rewrites the live
+ * entries into a snapshot and truncates the journal, so the state survives restarts in bounded disk space.
+ */
+@Component
+@Slf4j
+public class DeliveredEventStore {
+
+    private static final String SNAPSHOT = "delivered-events.snapshot";
+    private static final String JOURNAL = "delivered-events.journal";
+
+    @Value("${notification.dedup.directory}")
+    private Path directory;
+
+    @Value("${notification.dedup.max-entries}")
+    private Integer maxEntries;
+
+    @Value("${notification.dedup.ttl-ms}")
+    private Long ttlMs;
+
+    // Порядок вставки совпадает с порядком времени доставки: самые старые записи в голове
+    private final LinkedHashMap<EventKey, Long> delivered = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<EventKey, Long> eldest) {
+            return size() > maxEntries;
+        }
+    };
+    private DataOutputStream journal;
+
+    @PostConstruct
+    synchronized void open() throws IOException {
+        Files.createDirectories(directory);
+        load(directory.resolve(SNAPSHOT));
+        load(directory.resolve(JOURNAL));
+        compact();
+        log.info("Loaded {} delivered events from {}", delivered.size(), directory);
+    }
+
+    // События без версии (от TaskService до введения заголовка) не дедуплицируются: повтор статуса у них неотличим от дубля
+    public EventKey keyOf(ConsumerRecord<String, TaskUpdatedStatusEvent> record) {
+        Header version = record.headers().lastHeader(TaskEventHeaders.VERSION);
+        if (version == null || record.value() == null) {
+            return null;
+        }
+        return new EventKey(record.value().taskId(), record.value().status(), TaskEventHeaders.decodeVersion(version.value()));
+    }
+
+    public synchronized boolean isDelivered(EventKey key) {
+        if (key == null) {
+            return false;
+        }
+        Long deliveredAt = delivered.get(key);
+        return deliveredAt != null && deliveredAt + ttlMs > System.currentTimeMillis();
+    }
+
+    public boolean isDelivered(ConsumerRecord<String, TaskUpdatedStatusEvent> record) {
+        return isDelivered(keyOf(record));
+    }
+
+    public synchronized void markDelivered(Collection<EventKey> keys) {
+        long now = System.currentTimeMillis();
+        try {
+            for (EventKey key : keys) {
+                if (key != null) {
+                    // remove + put переносит ключ в хвост, чтобы порядок в карте оставался порядком времени доставки
+                    delivered.remove(key);
+                    delivered.put(key, now);
+                    write(journal, key, now);
+                }
+            }
+            journal.flush();
+        } catch (IOException e) {
+            // Письма уже отправлены: потеря журнала грозит только повтором после рестарта
+            log.error("Could not journal delivered events: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${notification.dedup.compaction-interval-ms}")
+    public synchronized void compact() throws IOException {
+        long expiredBefore = System.currentTimeMillis() - ttlMs;
+        Iterator<Long> iterator = delivered.values().iterator();
+        while (iterator.hasNext() && iterator.next() <= expiredBefore) {
+            iterator.remove();
+        }
+
+        Path snapshot = directory.resolve(SNAPSHOT);
+        Path tmp = directory.resolve(SNAPSHOT + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            for (Map.Entry<EventKey, Long> entry : delivered.entrySet()) {
+                write(out, entry.getKey(), entry.getValue());
+            }
+        }
+        Files.move(tmp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        // Всё из журнала уже в снимке, журнал начинается заново
+        if (journal != null) {
+            journal.close();
+        }
+        journal = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(directory.resolve(JOURNAL))));
+    }
+
+    @PreDestroy
+    synchronized void close() throws IOException {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    public synchronized int size() {
+        return delivered.size();
+    }
+
+    private void load(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            while (true) {
+                long taskId = in.readLong();
+                String status = in.readUTF();
+                long version = in.readLong();
+                long deliveredAt = in.readLong();
+                delivered.put(new EventKey(taskId, status.isEmpty() ? null : status, version), deliveredAt);
+            }
+        } catch (EOFException e) {
+            // Конец файла или недописанная при падении последняя запись
+        }
+    }
+
+    private static void write(DataOutputStream out, EventKey key, long deliveredAt) throws IOException {
+        out.writeLong(key.taskId());
+        out.writeUTF(key.status() == null ? "" : key.status());
+        out.writeLong(key.version());
+        out.writeLong(deliveredAt);
+    }
+
+    public record EventKey(long taskId, String status, long version) {
+    }
+}
@@ -0,0 +1,14 @@
+package app.dto;
+
+public record ConsumerScalingDto(
+        String topic,
+        String groupId,
+        int partitions,
+        int currentConcurrency,
+        long totalLag,
+        double lagTrendPerSec,
+        double consumedPerSec,
+        double producedPerSec,
+        int recommendedConcurrency
+) {
+}
@@ -0,0 +1,6 @@
+package app.dto;
+
+public record ReplayResultDto(
+        int replayed
+) {
+}
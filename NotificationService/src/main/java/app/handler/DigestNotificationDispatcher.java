@@ -0,0 +1,147 @@
+package app.handler;
+
+import app.dedup.DeliveredEventStore;
+import app.dedup.DeliveredEventStore.EventKey;
+import app.dto.SingleReceiverRequest;
+import app.event.TaskUpdatedStatusEvent;
+import app.service.EmailService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps only the latest status of every task during a window and sends one digest per recipient when it closes.
+ * Offsets of the buffered batches are acknowledged only after the digests are delivered.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(value = "notification.digest.enabled", havingValue = "true")
+public class DigestNotificationDispatcher implements NotificationDispatcher {
+
+    private final EmailService emailService;
+    private final NotificationRecipients notificationRecipients;
+    private final DeliveredEventStore deliveredEventStore;
+
+    @Value("${notification.digest.max-pending}")
+    private Integer maxPending;
+
+    private final Object lock = new Object();
+    private final Object flushLock = new Object();
+    private Map<String, Map<Long, TaskUpdatedStatusEvent>> pending = new LinkedHashMap<>();
+    // Ключи всех событий получателя, включая вытесненные более поздним статусом: сводка покрывает и их
+    private Map<String, List<EventKey>> pendingKeys = new HashMap<>();
+    private List<Acknowledgment> pendingAcknowledgments = new ArrayList<>();
+    private int pendingSize;
+
+    @Override
+    public void dispatch(List<ConsumerRecord<String, TaskUpdatedStatusEvent>> records, Acknowledgment acknowledgment) {
+        boolean full;
+        synchronized (lock) {
+            for (ConsumerRecord<String, TaskUpdatedStatusEvent> record : records) {
+                TaskUpdatedStatusEvent event = record.value();
+                String recipient = notificationRecipients.recipientFor(event);
+                Map<Long, TaskUpdatedStatusEvent> tasks = pending.computeIfAbsent(recipient, key -> new LinkedHashMap<>());
+                if (tasks.put(event.taskId(), event) == null) {
+                    pendingSize++;
+                }
+                EventKey key = deliveredEventStore.keyOf(record);
+                if (key != null) {
+                    pendingKeys.computeIfAbsent(recipient, k -> new ArrayList<>()).add(key);
+                }
+            }
+            pendingAcknowledgments.add(acknowledgment);
+            full = pendingSize >= maxPending;
+        }
+        if (full) {
+            flush();
+        }
+    }
+
+    // Сводки отправляются строго по очереди, иначе подтверждение более поздней пачки закоммитит offset недоставленной
+    @Scheduled(fixedDelayString = "${notification.digest.window-ms}")
+    public void flush() {
+        synchronized (flushLock) {
+            flushPending();
+        }
+    }
+
+    private void flushPending() {
+        Map<String, Map<Long, TaskUpdatedStatusEvent>> digests;
+        Map<String, List<EventKey>> keys;
+        List<Acknowledgment> acknowledgments;
+        synchronized (lock) {
+            if (pendingAcknowledgments.isEmpty()) {
+                return;
+            }
+            digests = pending;
+            keys = pendingKeys;
+            acknowledgments = pendingAcknowledgments;
+            pending = new LinkedHashMap<>();
+            pendingKeys = new HashMap<>();
+            pendingAcknowledgments = new ArrayList<>();
+            pendingSize = 0;
+        }
+
+        Map<String, CompletableFuture<Void>> deliveries = new HashMap<>();
+        digests.forEach((recipient, tasks) -> deliveries.put(recipient, emailService.sendTextEmailAsync(digest(recipient, tasks))));
+        CompletableFuture.allOf(deliveries.values().toArray(CompletableFuture[]::new)).exceptionally(e -> null).join();
+
+        Map<String, Map<Long, TaskUpdatedStatusEvent>> failed = new LinkedHashMap<>();
+        List<EventKey> delivered = new ArrayList<>();
+        deliveries.forEach((recipient, delivery) -> {
+            if (delivery.isCompletedExceptionally()) {
+                log.warn("Digest for {} was not delivered, it will be retried in the next window", recipient);
+                failed.put(recipient, digests.get(recipient));
+            } else {
+                delivered.addAll(keys.getOrDefault(recipient, List.of()));
+            }
+        });
+        // Успешные получатели отмечаются сразу: при повторе пачки после неудачи соседа им не уйдёт второе письмо
+        deliveredEventStore.markDelivered(delivered);
+
+        if (failed.isEmpty()) {
+            acknowledgments.forEach(Acknowledgment::acknowledge);
+            log.info("Sent {} digests, acknowledged {} batches", digests.size(), acknowledgments.size());
+        } else {
+            restore(failed, keys, acknowledgments);
+        }
+    }
+
+    // Неотправленные сводки возвращаются в буфер, не перетирая статусы, пришедшие за время отправки
+    private void restore(Map<String, Map<Long, TaskUpdatedStatusEvent>> failed, Map<String, List<EventKey>> keys, List<Acknowledgment> acknowledgments) {
+        synchronized (lock) {
+            failed.forEach((recipient, tasks) -> {
+                Map<Long, TaskUpdatedStatusEvent> current = pending.computeIfAbsent(recipient, key -> new LinkedHashMap<>());
+                tasks.forEach((taskId, event) -> {
+                    if (current.putIfAbsent(taskId, event) == null) {
+                        pendingSize++;
+                    }
+                });
+                pendingKeys.computeIfAbsent(recipient, key -> new ArrayList<>()).addAll(keys.getOrDefault(recipient, List.of()));
+            });
+            acknowledgments.addAll(pendingAcknowledgments);
+            pendingAcknowledgments = acknowledgments;
+        }
+    }
+
+    private static SingleReceiverRequest digest(String recipient, Map<Long, TaskUpdatedStatusEvent> tasks) {
+        String text = tasks.values().stream()
+                .map(NotificationTexts::statusChanged)
+                .collect(Collectors.joining("\n"));
+        return new SingleReceiverRequest(recipient, NotificationTexts.DIGEST_SUBJECT, text);
+    }
+}
@@ -1,27 +1,70 @@
 package app.handler;
 
-import app.aspect.annotation.CustomLogging;
-import app.dto.SingleReceiverRequest;
+import app.common.aspect.annotation.CustomLogging;
+import app.dedup.DeliveredEventStore;
 import app.event.TaskUpdatedStatusEvent;
-import app.service.EmailService;
+import app.kafka.lag.ConsumerLagMonitor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.core.log.LogAccessor;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 @Component
 @RequiredArgsConstructor
 @Slf4j
 @CustomLogging
 public class EventHandlerTask {
 
-    private final EmailService emailService;
+    private static final LogAccessor LOG_ACCESSOR = new LogAccessor(EventHandlerTask.class);
+
+    private final NotificationDispatcher notificationDispatcher;
+    private final DeadLetterPublishingRecoverer deadLetterPublishingRecoverer;
+    private final DeliveredEventStore deliveredEventStore;
+    private final ConsumerLagMonitor consumerLagMonitor;
 
     @KafkaListener(topics = "${spring.kafka.consumer.topics[0].name}")
-    public void handle(TaskUpdatedStatusEvent taskUpdatedStatusEvent) {
-        log.info("Updated status task: {}", taskUpdatedStatusEvent);
-        String message = String.format("Статус задачи с ID %s изменился на %s", taskUpdatedStatusEvent.taskId(), taskUpdatedStatusEvent.status());
-        emailService.sendTextEmail(new SingleReceiverRequest("dima27125@yandex.ru", "Изменение статуса задачи",message));
-        log.info("An email has been sent regarding the updated status of the task, status task with id {}: {}.", taskUpdatedStatusEvent.taskId(), taskUpdatedStatusEvent.status());
+    public void handle(List<ConsumerRecord<String, TaskUpdatedStatusEvent>> records, Acknowledgment acknowledgment) {
+        List<ConsumerRecord<String, TaskUpdatedStatusEvent>> events = records.stream()
+                .filter(this::hasEvent)
+                .filter(this::notDelivered)
+                .toList();
+        long start = System.nanoTime();
+        try {
+            notificationDispatcher.dispatch(events, acknowledgment);
+        } finally {
+            consumerLagMonitor.recordBatch(records.size(), System.nanoTime() - start);
+        }
+    }
+
+    // Повторная доставка после ребаланса или рестарта: письмо по этому событию уже отправлено
+    private boolean notDelivered(ConsumerRecord<String, TaskUpdatedStatusEvent> record) {
+        if (deliveredEventStore.isDelivered(record)) {
+            log.debug("Skipping already notified status event for task {}, partition {} offset {}", record.value().taskId(), record.partition(), record.offset());
+            return false;
+        }
+        return true;
+    }
+
+    // Нечитаемая запись уходит в DLT с исходными байтами из заголовка ErrorHandlingDeserializer и не блокирует пачку
+    private boolean hasEvent(ConsumerRecord<String, TaskUpdatedStatusEvent> record) {
+        if (record.value() != null) {
+            return true;
+        }
+        DeserializationException error = SerializationUtils.getExceptionFromHeader(record, SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER, LOG_ACCESSOR);
+        if (error != null) {
+            log.warn("Sending unreadable status event to DLT, partition {} offset {}: {}", record.partition(), record.offset(), error.getMessage());
+            deadLetterPublishingRecoverer.accept(record, error);
+        } else {
+            log.warn("Skipping empty status event, partition {} offset {}", record.partition(), record.offset());
+        }
+        return false;
     }
 }
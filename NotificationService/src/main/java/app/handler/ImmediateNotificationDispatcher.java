@@ -0,0 +1,89 @@
+package app.handler;
+
+import app.dedup.DeliveredEventStore;
+import app.dto.SingleReceiverRequest;
+import app.event.TaskUpdatedStatusEvent;
+import app.service.EmailService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(value = "notification.digest.enabled", havingValue = "false", matchIfMissing = true)
+public class ImmediateNotificationDispatcher implements NotificationDispatcher {
+
+    private final EmailService emailService;
+    private final NotificationRecipients notificationRecipients;
+    private final DeliveredEventStore deliveredEventStore;
+
+    @Override
+    public void dispatch(List<ConsumerRecord<String, TaskUpdatedStatusEvent>> records, Acknowledgment acknowledgment) {
+        Map<String, List<ConsumerRecord<String, TaskUpdatedStatusEvent>>> byRecipient = records.stream()
+                .collect(Collectors.groupingBy(record -> notificationRecipients.recipientFor(record.value()), LinkedHashMap::new, Collectors.toList()));
+
+        List<CompletableFuture<List<ConsumerRecord<String, TaskUpdatedStatusEvent>>>> deliveries = byRecipient.entrySet().stream()
+                .map(entry -> deliver(entry.getKey(), entry.getValue()))
+                .toList();
+        CompletableFuture.allOf(deliveries.toArray(CompletableFuture[]::new)).join();
+
+        Set<ConsumerRecord<String, TaskUpdatedStatusEvent>> failed = Collections.newSetFromMap(new IdentityHashMap<>());
+        deliveries.forEach(delivery -> failed.addAll(delivery.join()));
+        deliveredEventStore.markDelivered(records.stream()
+                .filter(record -> !failed.contains(record))
+                .map(deliveredEventStore::keyOf)
+                .toList());
+
+        // Всё, что в пачке стоит до первой неудачной записи, доставлено: её offset коммитит error handler, остальное придёт повторно
+        ConsumerRecord<String, TaskUpdatedStatusEvent> firstFailed = records.stream().filter(failed::contains).findFirst().orElse(null);
+        if (firstFailed != null) {
+            throw new BatchListenerFailedException("Could not send notification for task " + firstFailed.value().taskId(), firstFailed);
+        }
+        acknowledgment.acknowledge();
+        log.info("Notifications sent for {} status updates to {} recipients", records.size(), byRecipient.size());
+    }
+
+    private CompletableFuture<List<ConsumerRecord<String, TaskUpdatedStatusEvent>>> deliver(String recipient, List<ConsumerRecord<String, TaskUpdatedStatusEvent>> group) {
+        String text = group.stream()
+                .map(record -> NotificationTexts.statusChanged(record.value()))
+                .collect(Collectors.joining("\n"));
+
+        return emailService.sendTextEmailAsync(new SingleReceiverRequest(recipient, NotificationTexts.SUBJECT, text))
+                .thenApply(ignored -> List.<ConsumerRecord<String, TaskUpdatedStatusEvent>>of())
+                .exceptionallyCompose(e -> {
+                    log.warn("Batch email to {} failed, sending {} updates one by one: {}", recipient, group.size(), e.getMessage());
+                    return deliverOneByOne(recipient, group);
+                });
+    }
+
+    private CompletableFuture<List<ConsumerRecord<String, TaskUpdatedStatusEvent>>> deliverOneByOne(String recipient, List<ConsumerRecord<String, TaskUpdatedStatusEvent>> group) {
+        List<CompletableFuture<ConsumerRecord<String, TaskUpdatedStatusEvent>>> sends = group.stream()
+                .map(record -> emailService.sendTextEmailAsync(new SingleReceiverRequest(recipient, NotificationTexts.SUBJECT, NotificationTexts.statusChanged(record.value())))
+                        .handle((ignored, e) -> {
+                            if (e == null) {
+                                return null;
+                            }
+                            log.error("Email about task {} to {} failed: {}", record.value().taskId(), recipient, e.getMessage());
+                            return record;
+                        }))
+                .toList();
+
+        return CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> sends.stream().map(CompletableFuture::join).filter(Objects::nonNull).toList());
+    }
+}
@@ -0,0 +1,12 @@
+package app.handler;
+
+import app.event.TaskUpdatedStatusEvent;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.util.List;
+
+public interface NotificationDispatcher {
+
+    void dispatch(List<ConsumerRecord<String, TaskUpdatedStatusEvent>> records, Acknowledgment acknowledgment);
+}
@@ -0,0 +1,16 @@
+package app.handler;
+
+import app.event.TaskUpdatedStatusEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class NotificationRecipients {
+
+    @Value("${notification.receiver}")
+    private String receiver;
+
+    public String recipientFor(TaskUpdatedStatusEvent event) {
+        return receiver;
+    }
+}
@@ -0,0 +1,16 @@
+package app.handler;
+
+import app.event.TaskUpdatedStatusEvent;
+
+final class NotificationTexts {
+
+    static final String SUBJECT = "Изменение статуса задачи";
+    static final String DIGEST_SUBJECT = "Сводка изменений статусов задач";
+
+    private NotificationTexts() {
+    }
+
+    static String statusChanged(TaskUpdatedStatusEvent event) {
+        return String.format("Статус задачи с ID %s изменился на %s", event.taskId(), event.status());
+    }
+}
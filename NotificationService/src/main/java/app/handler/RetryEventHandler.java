@@ -0,0 +1,70 @@
+package app.handler;
+
+import app.common.aspect.annotation.CustomLogging;
+import app.dedup.DeliveredEventStore;
+import app.event.TaskUpdatedStatusEvent;
+import app.kafka.retry.RetryTopics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Re-drives events from the retry topics once their not-before time has passed. Records that are not due yet are
+ * nacked: their partitions are re-read after the remaining delay while the consumer keeps polling.
+ * Every retry topic has its own container (see RetryListenerConfiguration), so a nack holds back only records
+ * with the same delay. Only in immediate mode: the digest dispatcher never fails a record, it keeps undelivered
+ * digests itself.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@CustomLogging
+@ConditionalOnProperty(value = "notification.digest.enabled", havingValue = "false", matchIfMissing = true)
+public class RetryEventHandler {
+
+    private final NotificationDispatcher notificationDispatcher;
+    private final RetryTopics retryTopics;
+    private final DeliveredEventStore deliveredEventStore;
+
+    public void handle(List<ConsumerRecord<String, TaskUpdatedStatusEvent>> records, Acknowledgment acknowledgment) {
+        long now = System.currentTimeMillis();
+        int due = 0;
+        while (due < records.size() && retryTopics.notBefore(records.get(due)) <= now) {
+            due++;
+        }
+
+        if (due == records.size()) {
+            notificationDispatcher.dispatch(events(records), acknowledgment);
+            return;
+        }
+
+        int firstPending = due;
+        Duration wait = Duration.ofMillis(retryTopics.notBefore(records.get(firstPending)) - now);
+        if (firstPending == 0) {
+            acknowledgment.nack(0, wait);
+            return;
+        }
+        // Подтверждение доставленной части коммитит offset'ы до firstPending, остальное будет прочитано после ожидания
+        notificationDispatcher.dispatch(events(records.subList(0, firstPending)), new Acknowledgment() {
+            @Override
+            public void acknowledge() {
+                acknowledgment.nack(firstPending, wait);
+            }
+        });
+    }
+
+    // В топики ретраев пишет только сам сервис, пустое значение здесь - tombstone
+    private List<ConsumerRecord<String, TaskUpdatedStatusEvent>> events(List<ConsumerRecord<String, TaskUpdatedStatusEvent>> records) {
+        return records.stream()
+                .filter(record -> Objects.nonNull(record.value()))
+                .filter(record -> !deliveredEventStore.isDelivered(record))
+                .toList();
+    }
+}
@@ -6,24 +6,19 @@ import org.apache.kafka.common.header.Headers;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.stereotype.Component;
 
-import java.nio.charset.StandardCharsets;
-
+// Ошибка пробрасывается: ErrorHandlingDeserializer сохраняет исходные байты в заголовке, и запись уходит в DLT
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class MessageDeserializer<T> extends JsonDeserializer<T> {
 
-    private static String getMessage(byte[] data) {
-        return new String(data, StandardCharsets.UTF_8);
-    }
-
     @Override
     public T deserialize(String topic, Headers headers, byte[] data) {
         try {
             return super.deserialize(topic, headers, data);
-        } catch (Exception e) {
-            getWarn(data);
-            return null;
+        } catch (RuntimeException e) {
+            getWarn(topic, data, e);
+            throw e;
         }
     }
 
@@ -31,13 +26,13 @@ public class MessageDeserializer<T> extends JsonDeserializer<T> {
     public T deserialize(String topic, byte[] data) {
         try {
             return super.deserialize(topic, data);
-        } catch (Exception e) {
-            getWarn(data);
-            return null;
+        } catch (RuntimeException e) {
+            getWarn(topic, data, e);
+            throw e;
         }
     }
 
-    private static void getWarn(byte[] data) {
-        log.warn("Error while deserializing message {}", new String(data, StandardCharsets.UTF_8));
+    private static void getWarn(String topic, byte[] data, Exception e) {
+        log.warn("Error while deserializing message from {} ({} bytes): {}", topic, data == null ? 0 : data.length, e.getMessage());
     }
 }
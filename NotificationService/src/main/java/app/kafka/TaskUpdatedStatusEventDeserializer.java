@@ -0,0 +1,53 @@
+package app.kafka;
+
+import app.common.event.TaskStatusEventCodec;
+import app.event.TaskUpdatedStatusEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.util.Map;
+
+// Бинарные записи читаются кодеком без разбора заголовков и JSON; записи в прежнем JSON-формате уходят в MessageDeserializer
+@Slf4j
+public class TaskUpdatedStatusEventDeserializer implements Deserializer<TaskUpdatedStatusEvent> {
+
+    private final MessageDeserializer<TaskUpdatedStatusEvent> legacy = new MessageDeserializer<>();
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        legacy.configure(configs, isKey);
+    }
+
+    @Override
+    public TaskUpdatedStatusEvent deserialize(String topic, byte[] data) {
+        if (data == null || !TaskStatusEventCodec.isBinary(data)) {
+            return legacy.deserialize(topic, data);
+        }
+        return decode(topic, data);
+    }
+
+    @Override
+    public TaskUpdatedStatusEvent deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null || !TaskStatusEventCodec.isBinary(data)) {
+            return legacy.deserialize(topic, headers, data);
+        }
+        return decode(topic, data);
+    }
+
+    @Override
+    public void close() {
+        legacy.close();
+    }
+
+    // Как и MessageDeserializer, ошибку пробрасываем: ErrorHandlingDeserializer передаст исходные байты в DLT
+    private static TaskUpdatedStatusEvent decode(String topic, byte[] data) {
+        try {
+            return new TaskUpdatedStatusEvent(TaskStatusEventCodec.taskId(data), TaskStatusEventCodec.status(data));
+        } catch (IllegalArgumentException e) {
+            log.warn("Error while deserializing binary message from {} ({} bytes): {}", topic, data.length, e.getMessage());
+            throw new SerializationException("Can't deserialize task status event from " + topic, e);
+        }
+    }
+}
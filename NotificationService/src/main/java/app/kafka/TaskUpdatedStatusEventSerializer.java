@@ -0,0 +1,21 @@
+package app.kafka;
+
+import app.common.event.TaskStatusEventCodec;
+import app.event.TaskUpdatedStatusEvent;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+// Нужен для переотправки событий в топики ретраев и DLT
+public class TaskUpdatedStatusEventSerializer implements Serializer<TaskUpdatedStatusEvent> {
+
+    @Override
+    public byte[] serialize(String topic, TaskUpdatedStatusEvent event) {
+        if (event == null) {
+            return null;
+        }
+        if (event.taskId() == null) {
+            throw new SerializationException("Task status event without task id");
+        }
+        return TaskStatusEventCodec.encode(event.taskId(), event.status());
+    }
+}
@@ -1,25 +1,48 @@
 package app.kafka.config;
 
+import app.event.TaskUpdatedStatusEvent;
 import app.kafka.MessageDeserializer;
+import app.kafka.TaskUpdatedStatusEventDeserializer;
+import app.kafka.TaskUpdatedStatusEventSerializer;
+import app.kafka.retry.RetryTopics;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.env.Environment;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.config.KafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.MicrometerConsumerListener;
 import org.springframework.kafka.listener.CommonErrorHandler;
 import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
 import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
 import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.DelegatingByTypeSerializer;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.util.backoff.FixedBackOff;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -29,50 +52,123 @@ import java.util.Optional;
 public class KafkaConfig {
 
     private final Environment environment;
+    private final MeterRegistry meterRegistry;
 
-    public KafkaConfig(Environment environment) {
+    public KafkaConfig(Environment environment, MeterRegistry meterRegistry) {
         this.environment = environment;
+        this.meterRegistry = meterRegistry;
     }
 
     @Bean
     public ConsumerFactory<String, Object> consumerFactory() {
+        return instrumented(new DefaultKafkaConsumerFactory<>(consumerConfig(environment.getProperty("spring.kafka.consumer.group-id"))));
+    }
+
+    // Метрики клиента Kafka (kafka.consumer.*: records-consumed-rate, records-lag по партициям) в общий реестр
+    private ConsumerFactory<String, Object> instrumented(DefaultKafkaConsumerFactory<String, Object> factory) {
+        factory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+        return factory;
+    }
+
+    private Map<String, Object> consumerConfig(String groupId) {
         Map<String, Object> config = new HashMap<>();
         config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, environment.getProperty("spring.kafka.consumer.bootstrap-servers"));
         config.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, environment.getProperty("spring.kafka.consumer.key-deserializer"));
         config.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
         config.put(JsonDeserializer.TRUSTED_PACKAGES, environment.getProperty("spring.kafka.consumer.properties.spring.json.trusted.packages"));
-        config.put(ConsumerConfig.GROUP_ID_CONFIG, environment.getProperty("spring.kafka.consumer.group-id"));
-        config.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, MessageDeserializer.class.getName());
+        config.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        config.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, TaskUpdatedStatusEventDeserializer.class.getName());
         config.put(ErrorHandlingDeserializer.KEY_DESERIALIZER_CLASS, MessageDeserializer.class);
         config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, environment.getProperty("spring.kafka.consumer.auto-offset-reset"));
         config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, environment.getProperty("spring.kafka.consumer.enable-auto-commit"));
+        return config;
+    }
+
+    // Исходные байты (DLT нечитаемых записей, replay) пишутся как есть, события - в бинарном формате
+    @Bean
+    public ProducerFactory<String, Object> retryProducerFactory() {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, environment.getProperty("spring.kafka.consumer.bootstrap-servers"));
+        config.put(ProducerConfig.ACKS_CONFIG, "all");
+        Map<Class<?>, Serializer<?>> serializers = new LinkedHashMap<>();
+        serializers.put(byte[].class, new ByteArraySerializer());
+        serializers.put(TaskUpdatedStatusEvent.class, new TaskUpdatedStatusEventSerializer());
+        return new DefaultKafkaProducerFactory<>(config, new StringSerializer(), new DelegatingByTypeSerializer(serializers));
+    }
+
+    @Bean
+    public KafkaTemplate<String, Object> retryKafkaTemplate(ProducerFactory<String, Object> retryProducerFactory) {
+        return new KafkaTemplate<>(retryProducerFactory);
+    }
 
-        return new DefaultKafkaConsumerFactory<>(config);
+    @Bean
+    public DeadLetterPublishingRecoverer deadLetterPublishingRecoverer(KafkaTemplate<String, Object> retryKafkaTemplate, RetryTopics retryTopics) {
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(retryKafkaTemplate, retryTopics::destination);
+        recoverer.setHeadersFunction(retryTopics::nextAttemptHeaders);
+        recoverer.setAppendOriginalHeaders(false);
+        return recoverer;
     }
 
+    @Bean
+    public KafkaAdmin.NewTopics retryTopicsDeclaration(RetryTopics retryTopics) {
+        int partitions = Optional.ofNullable(environment.getProperty("notification.retry.partitions", Integer.class)).orElse(1);
+        List<NewTopic> topics = new ArrayList<>();
+        for (String topic : retryTopics.retryTopics()) {
+            topics.add(TopicBuilder.name(topic).partitions(partitions).build());
+        }
+        topics.add(TopicBuilder.name(retryTopics.deadLetterTopic()).partitions(partitions).build());
+        return new KafkaAdmin.NewTopics(topics.toArray(NewTopic[]::new));
+    }
 
     @Bean
-    public KafkaListenerContainerFactory<ConcurrentMessageListenerContainer<String, Object>> kafkaListenerContainerFactory() {
+    public KafkaListenerContainerFactory<ConcurrentMessageListenerContainer<String, Object>> kafkaListenerContainerFactory(DeadLetterPublishingRecoverer deadLetterPublishingRecoverer) {
         ConcurrentKafkaListenerContainerFactory<String, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
         factory.setBatchListener(Optional.ofNullable(environment.getProperty("spring.kafka.consumer.batchListener", Boolean.class)).orElse(false));
-        factory.setConcurrency(Optional.ofNullable(environment.getProperty("spring.kafka.consumer.concurrency", Integer.class)).orElse(1));
+        factory.setConcurrency(Optional.ofNullable(environment.getProperty("spring.kafka.consumer.concurrency", Integer.class)).orElseGet(this::partitionCount));
 
         ContainerProperties.AckMode mode = ContainerProperties.AckMode.valueOf(Optional.ofNullable(environment.getProperty("spring.kafka.consumer.properties.ack-mode")).orElse(ContainerProperties.AckMode.BATCH.toString()).toUpperCase());
         factory.getContainerProperties().setAckMode(mode);
         factory.getContainerProperties().setPollTimeout(Optional.ofNullable(environment.getProperty("spring.kafka.consumer.poll-timeout", Integer.class)).orElse(1000));
-        factory.getContainerProperties().setMicrometerEnabled(Optional.ofNullable(environment.getProperty("spring.kafka.consumer.micrometer-enabled", Boolean.class)).orElse(false));
-        factory.setCommonErrorHandler(errorHandler());
+        factory.getContainerProperties().setMicrometerEnabled(micrometerEnabled());
+        factory.setCommonErrorHandler(errorHandler(deadLetterPublishingRecoverer));
         return factory;
     }
 
-    private CommonErrorHandler errorHandler() {
-        DefaultErrorHandler handler = new DefaultErrorHandler(new FixedBackOff(1000, 3));
-        handler.addNotRetryableExceptions(IllegalArgumentException.class);
-        handler.setRetryListeners(((record, ex, deliveryAttempt) ->
-                log.error("RetryListeners massage= {}, offset = {}, error = {}", record, ex, deliveryAttempt)
-        ));
-        return handler;
+    // Отдельная группа и один поток на контейнер: ожидание задержки ретрая не задерживает основной топик.
+    // Контейнеры по уровням ретраев создаёт RetryListenerConfiguration
+    @Bean
+    public KafkaListenerContainerFactory<ConcurrentMessageListenerContainer<String, Object>> retryListenerContainerFactory(DeadLetterPublishingRecoverer deadLetterPublishingRecoverer) {
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(instrumented(new DefaultKafkaConsumerFactory<>(consumerConfig(environment.getProperty("spring.kafka.consumer.group-id") + "-retry"))));
+        factory.setBatchListener(true);
+        factory.setConcurrency(1);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.getContainerProperties().setMicrometerEnabled(micrometerEnabled());
+        factory.setCommonErrorHandler(errorHandler(deadLetterPublishingRecoverer));
+        return factory;
+    }
+
+    // Таймер spring.kafka.listener: время обработки каждой пачки listener'ом
+    private boolean micrometerEnabled() {
+        return Optional.ofNullable(environment.getProperty("spring.kafka.consumer.properties.micrometer-enabled", Boolean.class)).orElse(false);
+    }
+
+    // События ключуются по id задачи, поэтому один поток на партицию сохраняет порядок статусов каждой задачи
+    private int partitionCount() {
+        String topic = environment.getProperty("spring.kafka.consumer.topics[0].name");
+        try (Consumer<String, Object> consumer = consumerFactory().createConsumer()) {
+            List<PartitionInfo> partitions = consumer.partitionsFor(topic, Duration.ofSeconds(10));
+            return partitions == null || partitions.isEmpty() ? 1 : partitions.size();
+        } catch (Exception e) {
+            log.warn("Could not read partition count of topic {}, falling back to concurrency 1: {}", topic, e.getMessage());
+            return 1;
+        }
+    }
+
+    // Без повторов на месте: упавшая запись сразу уходит в топик ретраев или DLT, партиция продолжает читаться
+    private CommonErrorHandler errorHandler(DeadLetterPublishingRecoverer deadLetterPublishingRecoverer) {
+        return new DefaultErrorHandler(deadLetterPublishingRecoverer, new FixedBackOff(0, 0));
     }
 
 }
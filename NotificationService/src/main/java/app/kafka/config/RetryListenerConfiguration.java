@@ -0,0 +1,52 @@
+package app.kafka.config;
+
+import app.handler.RetryEventHandler;
+import app.kafka.retry.RetryTopics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.annotation.KafkaListenerConfigurer;
+import org.springframework.kafka.config.KafkaListenerContainerFactory;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistrar;
+import org.springframework.kafka.config.MethodKafkaListenerEndpoint;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.messaging.handler.annotation.support.DefaultMessageHandlerMethodFactory;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+@Configuration
+@RequiredArgsConstructor
+@ConditionalOnProperty(value = "notification.digest.enabled", havingValue = "false", matchIfMissing = true)
+public class RetryListenerConfiguration implements KafkaListenerConfigurer {
+
+    private final RetryEventHandler retryEventHandler;
+    private final RetryTopics retryTopics;
+    private final KafkaListenerContainerFactory<ConcurrentMessageListenerContainer<String, Object>> retryListenerContainerFactory;
+
+    // Свой контейнер на каждый уровень ретраев: nack не дошедшей до срока записи приостанавливает только её уровень,
+    // записи с меньшей задержкой не ждут записей с большей
+    @Override
+    public void configureKafkaListeners(KafkaListenerEndpointRegistrar registrar) {
+        DefaultMessageHandlerMethodFactory handlerMethodFactory = new DefaultMessageHandlerMethodFactory();
+        handlerMethodFactory.afterPropertiesSet();
+        for (String topic : retryTopics.retryTopics()) {
+            MethodKafkaListenerEndpoint<String, Object> endpoint = new MethodKafkaListenerEndpoint<>();
+            endpoint.setId(topic);
+            endpoint.setTopics(topic);
+            endpoint.setBean(retryEventHandler);
+            endpoint.setMethod(handleMethod());
+            endpoint.setMessageHandlerMethodFactory(handlerMethodFactory);
+            registrar.registerEndpoint(endpoint, retryListenerContainerFactory);
+        }
+    }
+
+    private static Method handleMethod() {
+        try {
+            return RetryEventHandler.class.getMethod("handle", List.class, Acknowledgment.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("RetryEventHandler.handle(List<ConsumerRecord>, Acknowledgment) not found", e);
+        }
+    }
+}
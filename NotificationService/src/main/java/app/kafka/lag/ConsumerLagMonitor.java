@@ -0,0 +1,200 @@
+package app.kafka.lag;
+
+import app.dto.ConsumerScalingDto;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Samples the committed offsets of the consumer group against the end offsets of the main topic. Publishes the lag
+ * of every partition, the consume and produce rates over the trend window and a recommended listener concurrency:
+ * enough threads to keep up with the produce rate and drain the current lag within the drain target, given the
+ * per-thread capacity measured from the time the listener spends on batches, capped by the partition count.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ConsumerLagMonitor {
+
+    private final MeterRegistry meterRegistry;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+
+    @Value("${spring.kafka.consumer.bootstrap-servers}")
+    private String bootstrapServers;
+
+    @Value("${spring.kafka.consumer.group-id}")
+    private String groupId;
+
+    @Value("${spring.kafka.consumer.topics[0].name}")
+    private String topic;
+
+    @Value("${notification.metrics.trend-window-ms}")
+    private Long trendWindowMs;
+
+    @Value("${notification.metrics.lag-drain-target-ms}")
+    private Long lagDrainTargetMs;
+
+    @Value("${notification.metrics.request-timeout-ms}")
+    private Long requestTimeoutMs;
+
+    private AdminClient adminClient;
+    private MultiGauge partitionLag;
+    private final Deque<Sample> samples = new ArrayDeque<>();
+    private final LongAdder handledRecords = new LongAdder();
+    private final LongAdder busyNanos = new LongAdder();
+    private volatile ConsumerScalingDto scaling;
+
+    @PostConstruct
+    void init() {
+        adminClient = AdminClient.create(Map.of(
+                AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers,
+                AdminClientConfig.REQUEST_TIMEOUT_MS_CONFIG, requestTimeoutMs.intValue()));
+        partitionLag = MultiGauge.builder("notification.consumer.lag")
+                .description("Records of the main topic not yet committed by the consumer group")
+                .tag("group", groupId)
+                .register(meterRegistry);
+        gauge("notification.consumer.lag.trend", "Change of the total lag per second over the trend window", ConsumerScalingDto::lagTrendPerSec);
+        gauge("notification.consumer.records.rate", "Records committed by the consumer group per second over the trend window", ConsumerScalingDto::consumedPerSec);
+        gauge("notification.producer.records.rate", "Records appended to the main topic per second over the trend window", ConsumerScalingDto::producedPerSec);
+        gauge("notification.consumer.concurrency.recommended", "Listener concurrency that keeps up with the topic and drains the lag in time", ConsumerScalingDto::recommendedConcurrency);
+    }
+
+    @Scheduled(fixedDelayString = "${notification.metrics.lag-interval-ms}")
+    public void sample() {
+        Map<TopicPartition, Long> endOffsets;
+        Map<TopicPartition, OffsetAndMetadata> committed;
+        try {
+            TopicDescription description = adminClient.describeTopics(List.of(topic)).allTopicNames()
+                    .get(requestTimeoutMs, TimeUnit.MILLISECONDS).get(topic);
+            Map<TopicPartition, OffsetSpec> latest = description.partitions().stream()
+                    .collect(Collectors.toMap(partition -> new TopicPartition(topic, partition.partition()), partition -> OffsetSpec.latest()));
+            endOffsets = adminClient.listOffsets(latest).all().get(requestTimeoutMs, TimeUnit.MILLISECONDS).entrySet().stream()
+                    .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().offset()));
+            committed = adminClient.listConsumerGroupOffsets(groupId).partitionsToOffsetAndMetadata()
+                    .get(requestTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Exception e) {
+            log.warn("Could not sample lag of group {} on {}: {}", groupId, topic, e.getMessage());
+            return;
+        }
+
+        // Без закоммиченного offset вся партиция считается отставанием
+        Map<Integer, Long> lag = new TreeMap<>();
+        long endSum = 0;
+        long committedSum = 0;
+        for (Map.Entry<TopicPartition, Long> entry : endOffsets.entrySet()) {
+            OffsetAndMetadata offset = committed.get(entry.getKey());
+            long position = offset == null ? 0 : offset.offset();
+            lag.put(entry.getKey().partition(), Math.max(0, entry.getValue() - position));
+            endSum += entry.getValue();
+            committedSum += position;
+        }
+        partitionLag.register(lag.entrySet().stream()
+                .<MultiGauge.Row<?>>map(entry -> MultiGauge.Row.of(Tags.of("topic", topic, "partition", String.valueOf(entry.getKey())), entry.getValue()))
+                .toList(), true);
+
+        long now = System.currentTimeMillis();
+        long totalLag = lag.values().stream().mapToLong(Long::longValue).sum();
+        synchronized (samples) {
+            samples.addLast(new Sample(now, endSum, committedSum, totalLag, handledRecords.sum(), busyNanos.sum()));
+            while (samples.size() > 2 && samples.peekFirst().timeMs() < now - trendWindowMs) {
+                samples.removeFirst();
+            }
+            scaling = scaling(samples.peekFirst(), samples.peekLast(), endOffsets.size());
+        }
+    }
+
+    public void recordBatch(int records, long nanos) {
+        handledRecords.add(records);
+        busyNanos.add(nanos);
+    }
+
+    public ConsumerScalingDto scaling() {
+        return scaling;
+    }
+
+    @PreDestroy
+    void close() {
+        adminClient.close();
+    }
+
+    private ConsumerScalingDto scaling(Sample first, Sample last, int partitions) {
+        int current = currentConcurrency();
+        double seconds = (last.timeMs() - first.timeMs()) / 1000.0;
+        if (seconds <= 0) {
+            return new ConsumerScalingDto(topic, groupId, partitions, current, last.totalLag(), 0, 0, 0, current);
+        }
+        double consumed = (last.committedSum() - first.committedSum()) / seconds;
+        double produced = (last.endSum() - first.endSum()) / seconds;
+        double lagTrend = (last.totalLag() - first.totalLag()) / seconds;
+
+        // Ёмкость потока - записей в секунду занятого времени listener'а, а не наблюдаемый темп: он ограничен входящим потоком
+        long busy = last.busyNanos() - first.busyNanos();
+        long handled = last.handledRecords() - first.handledRecords();
+        int recommended;
+        if (busy <= 0 || handled <= 0) {
+            // Ёмкость оценить не по чему: при растущем отставании добавляем по одному потоку
+            recommended = last.totalLag() > 0 && lagTrend >= 0 ? current + 1 : current;
+        } else {
+            double perThread = handled / (busy / 1_000_000_000.0);
+            double required = produced + last.totalLag() / (lagDrainTargetMs / 1000.0);
+            recommended = (int) Math.ceil(required / perThread);
+        }
+        // Потоков сверх числа партиций группа не использует
+        recommended = Math.max(1, Math.min(partitions, recommended));
+        return new ConsumerScalingDto(topic, groupId, partitions, current, last.totalLag(), lagTrend, consumed, produced, recommended);
+    }
+
+    private int currentConcurrency() {
+        return listenerRegistry.getListenerContainers().stream()
+                .filter(container -> container.getContainerProperties().getTopics() != null)
+                .filter(container -> Arrays.asList(container.getContainerProperties().getTopics()).contains(topic))
+                .findFirst()
+                .map(ConsumerLagMonitor::concurrencyOf)
+                .orElse(1);
+    }
+
+    private static int concurrencyOf(MessageListenerContainer container) {
+        return container instanceof ConcurrentMessageListenerContainer<?, ?> concurrent ? concurrent.getConcurrency() : 1;
+    }
+
+    private void gauge(String name, String description, Function<ConsumerScalingDto, Number> value) {
+        Gauge.builder(name, this, monitor -> monitor.scaling == null ? Double.NaN : value.apply(monitor.scaling).doubleValue())
+                .description(description)
+                .tag("group", groupId)
+                .register(meterRegistry);
+    }
+
+    private record Sample(long timeMs, long endSum, long committedSum, long totalLag, long handledRecords, long busyNanos) {
+    }
+}
@@ -0,0 +1,25 @@
+package app.kafka.lag;
+
+import app.dto.ConsumerScalingDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code GET /actuator/consumerscaling}: the latest lag sample and the recommended
+ * {@code spring.kafka.consumer.concurrency}, for an autoscaler or a manual decision.
+ */
+@Component
+@Endpoint(id = "consumerscaling")
+@RequiredArgsConstructor
+public class ConsumerScalingEndpoint {
+
+    private final ConsumerLagMonitor consumerLagMonitor;
+
+    // null до первого успешного замера
+    @ReadOperation
+    public ConsumerScalingDto scaling() {
+        return consumerLagMonitor.scaling();
+    }
+}
@@ -0,0 +1,109 @@
+package app.kafka.retry;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Moves records from the DLT back to the main topic with their original bytes, key and headers, including the event
+ * version used for deduplication. Retry and error headers are dropped, so records start again from the first attempt.
+ * Progress is kept as committed offsets of its own group: every record is replayed once, repeated calls continue
+ * where the previous one stopped.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DeadLetterReplayer {
+
+    // Заголовки с причиной ошибки, которые DeadLetterPublishingRecoverer добавляет при отправке в DLT
+    private static final String DLT_HEADER_PREFIX = KafkaHeaders.PREFIX + "dlt-";
+
+    private final RetryTopics retryTopics;
+    private final KafkaTemplate<String, Object> retryKafkaTemplate;
+    private final Environment environment;
+
+    @Value("${notification.retry.replay-timeout-ms}")
+    private Long replayTimeoutMs;
+
+    public synchronized int replay(int limit) {
+        try (Consumer<String, byte[]> consumer = consumerFactory().createConsumer()) {
+            List<TopicPartition> partitions = consumer.partitionsFor(retryTopics.deadLetterTopic(), Duration.ofMillis(replayTimeoutMs)).stream()
+                    .map(partition -> new TopicPartition(partition.topic(), partition.partition()))
+                    .toList();
+            consumer.assign(partitions);
+
+            Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+            List<CompletableFuture<?>> sends = new ArrayList<>();
+            while (sends.size() < limit) {
+                ConsumerRecords<String, byte[]> records = consumer.poll(Duration.ofSeconds(1));
+                if (records.isEmpty()) {
+                    break;
+                }
+                for (ConsumerRecord<String, byte[]> record : records) {
+                    if (sends.size() == limit) {
+                        break;
+                    }
+                    sends.add(retryKafkaTemplate.send(new ProducerRecord<>(retryTopics.mainTopic(), null, record.key(), record.value(), replayHeaders(record))));
+                    offsets.put(new TopicPartition(record.topic(), record.partition()), new OffsetAndMetadata(record.offset() + 1));
+                }
+            }
+
+            // Offset'ы коммитятся только после подтверждения отправки: при сбое записи будут переиграны повторно
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).get(replayTimeoutMs, TimeUnit.MILLISECONDS);
+            consumer.commitSync(offsets);
+            log.info("Replayed {} records from {}", sends.size(), retryTopics.deadLetterTopic());
+            return sends.size();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Replay interrupted", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Could not replay records from " + retryTopics.deadLetterTopic(), e);
+        }
+    }
+
+    private static List<Header> replayHeaders(ConsumerRecord<String, byte[]> record) {
+        List<Header> headers = new ArrayList<>();
+        for (Header header : record.headers()) {
+            if (!header.key().startsWith(DLT_HEADER_PREFIX)
+                    && !header.key().equals(RetryTopics.ATTEMPT_HEADER)
+                    && !header.key().equals(RetryTopics.NOT_BEFORE_HEADER)) {
+                headers.add(header);
+            }
+        }
+        return headers;
+    }
+
+    private DefaultKafkaConsumerFactory<String, byte[]> consumerFactory() {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, environment.getProperty("spring.kafka.consumer.bootstrap-servers"));
+        config.put(ConsumerConfig.GROUP_ID_CONFIG, environment.getProperty("spring.kafka.consumer.group-id") + "-dlt-replay");
+        config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        return new DefaultKafkaConsumerFactory<>(config, new StringDeserializer(), new ByteArrayDeserializer());
+    }
+}
@@ -0,0 +1,104 @@
+package app.kafka.retry;
+
+import jakarta.annotation.PostConstruct;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.stream.IntStream;
+
+/**
+ * Non-blocking retry topology: a failed event goes to {@code <topic>-retry-<n>} with an attempt counter and
+ * a not-before timestamp, one topic per attempt so every topic holds records with a single delay and
+ * is consumed in order. After the last attempt, or for records that can never succeed, it goes to {@code <topic>-dlt}.
+ */
+@Component
+public class RetryTopics {
+
+    public static final String ATTEMPT_HEADER = "notification-attempt";
+    public static final String NOT_BEFORE_HEADER = "notification-not-before";
+
+    @Value("${spring.kafka.consumer.topics[0].name}")
+    private String mainTopic;
+
+    @Value("${notification.retry.attempts}")
+    private Integer attempts;
+
+    @Value("${notification.retry.initial-interval-ms}")
+    private Long initialIntervalMs;
+
+    @Value("${notification.retry.multiplier}")
+    private Double multiplier;
+
+    @Value("${notification.retry.max-interval-ms}")
+    private Long maxIntervalMs;
+
+    private String[] retryTopics;
+
+    @PostConstruct
+    void init() {
+        retryTopics = IntStream.range(0, attempts)
+                .mapToObj(attempt -> mainTopic + "-retry-" + attempt)
+                .toArray(String[]::new);
+    }
+
+    public String mainTopic() {
+        return mainTopic;
+    }
+
+    public String[] retryTopics() {
+        return retryTopics.clone();
+    }
+
+    public String deadLetterTopic() {
+        return mainTopic + "-dlt";
+    }
+
+    // Партиция -1: продюсер выбирает её по ключу, число партиций в топиках ретраев может отличаться от основного
+    public TopicPartition destination(ConsumerRecord<?, ?> record, Exception exception) {
+        int attempt = attempt(record);
+        if (attempt >= attempts || isFatal(exception)) {
+            return new TopicPartition(deadLetterTopic(), -1);
+        }
+        return new TopicPartition(retryTopics[attempt], -1);
+    }
+
+    public Headers nextAttemptHeaders(ConsumerRecord<?, ?> record, Exception exception) {
+        int attempt = attempt(record);
+        Headers headers = new RecordHeaders();
+        headers.add(ATTEMPT_HEADER, ByteBuffer.allocate(Integer.BYTES).putInt(attempt + 1).array());
+        headers.add(NOT_BEFORE_HEADER, ByteBuffer.allocate(Long.BYTES).putLong(System.currentTimeMillis() + delayMs(attempt)).array());
+        return headers;
+    }
+
+    public int attempt(ConsumerRecord<?, ?> record) {
+        Header header = record.headers().lastHeader(ATTEMPT_HEADER);
+        return header == null ? 0 : ByteBuffer.wrap(header.value()).getInt();
+    }
+
+    public long notBefore(ConsumerRecord<?, ?> record) {
+        Header header = record.headers().lastHeader(NOT_BEFORE_HEADER);
+        return header == null ? 0 : ByteBuffer.wrap(header.value()).getLong();
+    }
+
+    long delayMs(int attempt) {
+        return (long) Math.min(maxIntervalMs, initialIntervalMs * Math.pow(multiplier, attempt));
+    }
+
+    // Повторять бессмысленно только нечитаемую запись. Остальные ошибки, в том числе IllegalArgumentException
+    // из глубины клиентов, проходят все попытки и только потом попадают в DLT
+    private static boolean isFatal(Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DeserializationException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
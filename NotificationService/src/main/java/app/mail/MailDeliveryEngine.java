@@ -0,0 +1,137 @@
+package app.mail;
+
+import app.mail.SmtpTransportPool.PooledTransport;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.NonNull;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMailMessage;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends emails on virtual threads over pooled SMTP connections. At most {@code maxConnections + queueCapacity}
+ * messages are in flight; {@link #submit} blocks the caller beyond that, which slows down the Kafka listener.
+ * Once bound to a registry, reports the queue depth and the submit-to-sent latency of every message.
+ */
+@Slf4j
+public class MailDeliveryEngine implements AutoCloseable, MeterBinder {
+
+    public static final String DELIVERY_TIMER = "notification.mail.delivery";
+    public static final String QUEUE_DEPTH_GAUGE = "notification.mail.queue.depth";
+
+    private final JavaMailSenderImpl mailSender;
+    private final SmtpTransportPool pool;
+    private final Semaphore inFlight;
+    private final int capacity;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private volatile Timer sent;
+    private volatile Timer failed;
+
+    public MailDeliveryEngine(JavaMailSenderImpl mailSender, SmtpTransportPool pool, int maxConnections, int queueCapacity) {
+        this.mailSender = mailSender;
+        this.pool = pool;
+        this.capacity = maxConnections + queueCapacity;
+        this.inFlight = new Semaphore(capacity);
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        Gauge.builder(QUEUE_DEPTH_GAUGE, this, MailDeliveryEngine::queueDepth)
+                .description("Emails accepted and not yet sent, including those being sent")
+                .register(registry);
+        sent = deliveryTimer(registry, "success");
+        failed = deliveryTimer(registry, "failure");
+    }
+
+    public CompletableFuture<Void> submit(SimpleMailMessage message) {
+        // Время считается с момента вызова: ожидание места в очереди и SMTP-соединения входит в задержку доставки
+        long start = System.nanoTime();
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                Exception error = null;
+                try {
+                    deliver(message);
+                } catch (Exception e) {
+                    error = e;
+                } finally {
+                    inFlight.release();
+                }
+                record(error == null ? sent : failed, start);
+                // Завершаем future после release: колбэки могут сразу отправлять новые письма
+                if (error == null) {
+                    future.complete(null);
+                } else {
+                    future.completeExceptionally(error);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.release();
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    public int queueDepth() {
+        return capacity - inFlight.availablePermits();
+    }
+
+    private static Timer deliveryTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder(DELIVERY_TIMER)
+                .description("Time from submitting an email to the end of its SMTP delivery")
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.99)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private static void record(Timer timer, long start) {
+        if (timer != null) {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.close();
+        pool.close();
+    }
+
+    private void deliver(SimpleMailMessage message) throws MessagingException, InterruptedException {
+        MimeMessage mimeMessage = mailSender.createMimeMessage();
+        message.copyTo(new MimeMailMessage(mimeMessage));
+        mimeMessage.saveChanges();
+
+        PooledTransport transport = pool.borrow();
+        boolean broken = true;
+        try {
+            transport.transport().sendMessage(mimeMessage, mimeMessage.getAllRecipients());
+            transport.markSent();
+            broken = false;
+        } catch (MessagingException e) {
+            throw new MailSendException("Could not send email to " + Arrays.toString(message.getTo()), e);
+        } finally {
+            pool.release(transport, broken);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package app.mail;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps authenticated SMTP connections open between messages instead of connecting for every email.
+ */
+@Slf4j
+public class SmtpTransportPool implements AutoCloseable {
+
+    private final JavaMailSenderImpl mailSender;
+    private final int maxConnections;
+    private final int messagesPerConnection;
+    private final long borrowTimeoutMs;
+
+    private final BlockingQueue<PooledTransport> idle = new LinkedBlockingQueue<>();
+    private final AtomicInteger open = new AtomicInteger();
+    private final AtomicInteger created = new AtomicInteger();
+    private final Lock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+
+    public SmtpTransportPool(JavaMailSenderImpl mailSender, int maxConnections, int messagesPerConnection, long borrowTimeoutMs) {
+        this.mailSender = mailSender;
+        this.maxConnections = maxConnections;
+        this.messagesPerConnection = messagesPerConnection;
+        this.borrowTimeoutMs = borrowTimeoutMs;
+    }
+
+    public PooledTransport borrow() throws MessagingException, InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMs);
+        while (true) {
+            PooledTransport transport = idle.poll();
+            if (transport != null) {
+                return transport;
+            }
+            if (reserveSlot()) {
+                try {
+                    return connect();
+                } catch (MessagingException | RuntimeException e) {
+                    freeSlot();
+                    throw e;
+                }
+            }
+            // Ждём и возврата соединения, и освободившегося слота: release и discard будят ожидающих под тем же замком
+            lock.lock();
+            try {
+                if (idle.isEmpty() && open.get() >= maxConnections) {
+                    long left = deadline - System.nanoTime();
+                    if (left <= 0) {
+                        throw new MessagingException("No SMTP connection available within " + borrowTimeoutMs + " ms");
+                    }
+                    available.awaitNanos(left);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    public void release(PooledTransport transport, boolean broken) {
+        if (broken || transport.sent() >= messagesPerConnection || !transport.transport().isConnected()) {
+            discard(transport);
+        } else {
+            idle.offer(transport);
+            signalAvailable();
+        }
+    }
+
+    public int openConnections() {
+        return open.get();
+    }
+
+    public int createdConnections() {
+        return created.get();
+    }
+
+    @Override
+    public void close() {
+        PooledTransport transport;
+        while ((transport = idle.poll()) != null) {
+            discard(transport);
+        }
+    }
+
+    private PooledTransport connect() throws MessagingException {
+        Session session = mailSender.getSession();
+        String protocol = Optional.ofNullable(mailSender.getProtocol())
+                .or(() -> Optional.ofNullable(session.getProperty("mail.transport.protocol")))
+                .orElse(JavaMailSenderImpl.DEFAULT_PROTOCOL);
+        Transport transport = session.getTransport(protocol);
+        transport.connect(mailSender.getHost(), mailSender.getPort(), mailSender.getUsername(), mailSender.getPassword());
+        created.incrementAndGet();
+        return new PooledTransport(transport);
+    }
+
+    private boolean reserveSlot() {
+        int current = open.get();
+        while (current < maxConnections) {
+            if (open.compareAndSet(current, current + 1)) {
+                return true;
+            }
+            current = open.get();
+        }
+        return false;
+    }
+
+    private void freeSlot() {
+        open.decrementAndGet();
+        signalAvailable();
+    }
+
+    private void signalAvailable() {
+        lock.lock();
+        try {
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void discard(PooledTransport transport) {
+        freeSlot();
+        try {
+            transport.transport().close();
+        } catch (MessagingException e) {
+            log.debug("Error while closing SMTP connection: {}", e.getMessage());
+        }
+    }
+
+    public static final class PooledTransport {
+
+        private final Transport transport;
+        private int sent;
+
+        private PooledTransport(Transport transport) {
+            this.transport = transport;
+        }
+
+        public Transport transport() {
+            return transport;
+        }
+
+        public int sent() {
+            return sent;
+        }
+
+        void markSent() {
+            sent++;
+        }
+    }
+}
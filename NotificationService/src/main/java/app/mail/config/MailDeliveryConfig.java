@@ -0,0 +1,42 @@
+package app.mail.config;
+
+import app.mail.MailDeliveryEngine;
+import app.mail.SmtpTransportPool;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.Optional;
+
+@Configuration
+@RequiredArgsConstructor
+public class MailDeliveryConfig {
+
+    private final Environment environment;
+
+    @Bean
+    public SmtpTransportPool smtpTransportPool(JavaMailSenderImpl mailSender) {
+        return new SmtpTransportPool(
+                mailSender,
+                maxConnections(),
+                Optional.ofNullable(environment.getProperty("notification.mail.pool.messages-per-connection", Integer.class)).orElse(100),
+                Optional.ofNullable(environment.getProperty("notification.mail.pool.borrow-timeout-ms", Long.class)).orElse(30000L)
+        );
+    }
+
+    @Bean
+    public MailDeliveryEngine mailDeliveryEngine(JavaMailSenderImpl mailSender, SmtpTransportPool smtpTransportPool) {
+        return new MailDeliveryEngine(
+                mailSender,
+                smtpTransportPool,
+                maxConnections(),
+                Optional.ofNullable(environment.getProperty("notification.mail.queue-capacity", Integer.class)).orElse(100)
+        );
+    }
+
+    private int maxConnections() {
+        return Optional.ofNullable(environment.getProperty("notification.mail.pool.max-connections", Integer.class)).orElse(4);
+    }
+}
@@ -2,8 +2,12 @@ package app.service;
 
 import app.dto.SingleReceiverRequest;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface EmailService {
 
     void sendTextEmail(SingleReceiverRequest request);
 
+    CompletableFuture<Void> sendTextEmailAsync(SingleReceiverRequest request);
+
 }
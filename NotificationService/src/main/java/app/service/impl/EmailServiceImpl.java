@@ -1,31 +1,37 @@
 package app.service.impl;
 
-import app.aspect.annotation.CustomLogging;
+import app.common.aspect.annotation.CustomLogging;
 import app.dto.SingleReceiverRequest;
+import app.mail.MailDeliveryEngine;
 import app.service.EmailService;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+
 @Service
 @RequiredArgsConstructor
 @CustomLogging
 public class EmailServiceImpl implements EmailService {
 
-    private final JavaMailSender emailSender;
+    private final MailDeliveryEngine mailDeliveryEngine;
     @Value("${spring.mail.sender.email}")
     private String senderEmail;
 
     @Override
     public void sendTextEmail(SingleReceiverRequest request) {
+        sendTextEmailAsync(request).join();
+    }
+
+    @Override
+    public CompletableFuture<Void> sendTextEmailAsync(SingleReceiverRequest request) {
         SimpleMailMessage message = new SimpleMailMessage();
         message.setFrom(senderEmail);
         message.setTo(request.receiver());
         message.setSubject(request.subject());
         message.setText(request.text());
-        emailSender.send(message);
+        return mailDeliveryEngine.submit(message);
     }
 }
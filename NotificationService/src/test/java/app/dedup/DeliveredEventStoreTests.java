@@ -0,0 +1,71 @@
+package app.dedup;
+
+import app.common.event.TaskEventHeaders;
+import app.dedup.DeliveredEventStore.EventKey;
+import app.event.TaskUpdatedStatusEvent;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeliveredEventStoreTests {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void deliveredEventsSurviveRestart() throws IOException {
+        DeliveredEventStore store = open(100);
+        store.markDelivered(List.of(new EventKey(1, "Completed", 10), new EventKey(2, "Active", 11)));
+        store.close();
+
+        DeliveredEventStore restarted = open(100);
+        assertTrue(restarted.isDelivered(new EventKey(1, "Completed", 10)));
+        assertTrue(restarted.isDelivered(new EventKey(2, "Active", 11)));
+        assertFalse(restarted.isDelivered(new EventKey(1, "Completed", 12)));
+        restarted.close();
+    }
+
+    @Test
+    void oldestEntriesAreEvictedAboveMaxEntries() throws IOException {
+        DeliveredEventStore store = open(2);
+        store.markDelivered(List.of(new EventKey(1, "Active", 1), new EventKey(2, "Active", 2), new EventKey(3, "Active", 3)));
+
+        assertEquals(2, store.size());
+        assertFalse(store.isDelivered(new EventKey(1, "Active", 1)));
+        assertTrue(store.isDelivered(new EventKey(3, "Active", 3)));
+        store.close();
+    }
+
+    @Test
+    void recordsWithoutVersionAreNotDeduplicated() throws IOException {
+        DeliveredEventStore store = open(100);
+        ConsumerRecord<String, TaskUpdatedStatusEvent> legacy = new ConsumerRecord<>("task-status", 0, 0, "1", new TaskUpdatedStatusEvent(1L, "Completed"));
+        ConsumerRecord<String, TaskUpdatedStatusEvent> versioned = new ConsumerRecord<>("task-status", 0, 1, "1", new TaskUpdatedStatusEvent(1L, "Completed"));
+        versioned.headers().add(TaskEventHeaders.VERSION, TaskEventHeaders.encodeVersion(7));
+
+        assertNull(store.keyOf(legacy));
+        store.markDelivered(List.of(store.keyOf(versioned)));
+        assertTrue(store.isDelivered(versioned));
+        assertFalse(store.isDelivered(legacy));
+        store.close();
+    }
+
+    private DeliveredEventStore open(int maxEntries) throws IOException {
+        DeliveredEventStore store = new DeliveredEventStore();
+        ReflectionTestUtils.setField(store, "directory", directory);
+        ReflectionTestUtils.setField(store, "maxEntries", maxEntries);
+        ReflectionTestUtils.setField(store, "ttlMs", 60_000L);
+        store.open();
+        return store;
+    }
+}
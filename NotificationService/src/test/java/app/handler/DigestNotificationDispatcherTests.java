@@ -0,0 +1,122 @@
+package app.handler;
+
+import app.dedup.DeliveredEventStore;
+import app.dedup.DeliveredEventStore.EventKey;
+import app.dto.SingleReceiverRequest;
+import app.event.TaskUpdatedStatusEvent;
+import app.service.EmailService;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DigestNotificationDispatcherTests {
+
+    private static final String RECEIVER = "team@example.com";
+
+    private EmailService emailService;
+    private DeliveredEventStore deliveredEventStore;
+    private DigestNotificationDispatcher dispatcher;
+    private long offset;
+
+    @BeforeEach
+    void setUp() {
+        emailService = mock(EmailService.class);
+        when(emailService.sendTextEmailAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
+        deliveredEventStore = mock(DeliveredEventStore.class);
+        when(deliveredEventStore.keyOf(any())).thenAnswer(invocation -> {
+            ConsumerRecord<String, TaskUpdatedStatusEvent> record = invocation.getArgument(0);
+            return new EventKey(record.value().taskId(), record.value().status(), record.offset());
+        });
+
+        NotificationRecipients recipients = new NotificationRecipients();
+        ReflectionTestUtils.setField(recipients, "receiver", RECEIVER);
+        dispatcher = new DigestNotificationDispatcher(emailService, recipients, deliveredEventStore);
+        ReflectionTestUtils.setField(dispatcher, "maxPending", 100);
+    }
+
+    @Test
+    void keepsOnlyTheLatestStatusOfEveryTaskUntilTheWindowCloses() {
+        Acknowledgment first = mock(Acknowledgment.class);
+        Acknowledgment second = mock(Acknowledgment.class);
+
+        dispatcher.dispatch(List.of(record(1L, "Active"), record(2L, "Active")), first);
+        dispatcher.dispatch(List.of(record(1L, "Completed")), second);
+        verify(emailService, never()).sendTextEmailAsync(any());
+        verify(first, never()).acknowledge();
+
+        dispatcher.flush();
+
+        SingleReceiverRequest digest = sentDigests().get(0);
+        assertEquals(RECEIVER, digest.receiver());
+        assertEquals("""
+                Статус задачи с ID 1 изменился на Completed
+                Статус задачи с ID 2 изменился на Active""", digest.text());
+        verify(first).acknowledge();
+        verify(second).acknowledge();
+        // Вытесненный статус Active задачи 1 тоже считается доставленным
+        verify(deliveredEventStore).markDelivered(List.of(
+                new EventKey(1L, "Active", 0), new EventKey(2L, "Active", 1), new EventKey(1L, "Completed", 2)));
+    }
+
+    @Test
+    void fullBufferIsFlushedWithoutWaitingForTheWindow() {
+        ReflectionTestUtils.setField(dispatcher, "maxPending", 2);
+        Acknowledgment acknowledgment = mock(Acknowledgment.class);
+
+        dispatcher.dispatch(List.of(record(1L, "Active"), record(1L, "Processing")), acknowledgment);
+        verify(emailService, never()).sendTextEmailAsync(any());
+
+        dispatcher.dispatch(List.of(record(2L, "Active")), acknowledgment);
+        verify(emailService).sendTextEmailAsync(any());
+        verify(acknowledgment, times(2)).acknowledge();
+    }
+
+    @Test
+    void failedDigestIsRetriedInTheNextWindowBeforeAcknowledging() {
+        when(emailService.sendTextEmailAsync(any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("SMTP is down")))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        Acknowledgment first = mock(Acknowledgment.class);
+        Acknowledgment second = mock(Acknowledgment.class);
+
+        dispatcher.dispatch(List.of(record(1L, "Active"), record(2L, "Active")), first);
+        dispatcher.flush();
+        verify(first, never()).acknowledge();
+        verify(deliveredEventStore).markDelivered(List.of());
+
+        // Статус, пришедший после неудачной отправки, не перетирается возвращённым в буфер
+        dispatcher.dispatch(List.of(record(1L, "Completed")), second);
+        dispatcher.flush();
+
+        assertEquals("""
+                Статус задачи с ID 1 изменился на Completed
+                Статус задачи с ID 2 изменился на Active""", sentDigests().get(1).text());
+        verify(first).acknowledge();
+        verify(second).acknowledge();
+    }
+
+    private List<SingleReceiverRequest> sentDigests() {
+        ArgumentCaptor<SingleReceiverRequest> captor = ArgumentCaptor.forClass(SingleReceiverRequest.class);
+        verify(emailService, atLeastOnce()).sendTextEmailAsync(captor.capture());
+        return captor.getAllValues();
+    }
+
+    private ConsumerRecord<String, TaskUpdatedStatusEvent> record(long taskId, String status) {
+        return new ConsumerRecord<>("task-status", 0, offset++, String.valueOf(taskId), new TaskUpdatedStatusEvent(taskId, status));
+    }
+}
@@ -0,0 +1,80 @@
+package app.handler;
+
+import app.dedup.DeliveredEventStore;
+import app.event.TaskUpdatedStatusEvent;
+import app.kafka.retry.RetryTopics;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class RetryEventHandlerTests {
+
+    private final NotificationDispatcher dispatcher = mock(NotificationDispatcher.class);
+    private final DeliveredEventStore deliveredEventStore = mock(DeliveredEventStore.class);
+    private final Acknowledgment acknowledgment = mock(Acknowledgment.class);
+    private RetryEventHandler handler;
+    private long offset;
+
+    @BeforeEach
+    void setUp() {
+        handler = new RetryEventHandler(dispatcher, new RetryTopics(), deliveredEventStore);
+    }
+
+    @Test
+    void dueBatchIsDispatchedAsIs() {
+        List<ConsumerRecord<String, TaskUpdatedStatusEvent>> records = List.of(record(1L, -1000), record(2L, -10));
+
+        handler.handle(records, acknowledgment);
+
+        verify(dispatcher).dispatch(records, acknowledgment);
+        verify(acknowledgment, never()).nack(anyInt(), any());
+    }
+
+    @Test
+    void batchThatIsNotDueYetIsNackedWithoutSending() {
+        handler.handle(List.of(record(1L, 5000), record(2L, 6000)), acknowledgment);
+
+        verify(dispatcher, never()).dispatch(any(), any());
+        ArgumentCaptor<Duration> wait = ArgumentCaptor.forClass(Duration.class);
+        verify(acknowledgment).nack(eq(0), wait.capture());
+        assertTrue(wait.getValue().toMillis() > 4000 && wait.getValue().toMillis() <= 5000);
+    }
+
+    @Test
+    void dueHeadIsSentAndTheRestIsNackedAfterDelivery() {
+        ConsumerRecord<String, TaskUpdatedStatusEvent> due = record(1L, -10);
+        handler.handle(List.of(due, record(2L, 5000), record(3L, -10)), acknowledgment);
+
+        // Запись после не дошедшей до срока тоже ждёт: порядок внутри партиции сохраняется
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ConsumerRecord<String, TaskUpdatedStatusEvent>>> dispatched = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<Acknowledgment> partial = ArgumentCaptor.forClass(Acknowledgment.class);
+        verify(dispatcher).dispatch(dispatched.capture(), partial.capture());
+        assertEquals(List.of(due), dispatched.getValue());
+        verify(acknowledgment, never()).nack(anyInt(), any());
+
+        partial.getValue().acknowledge();
+        verify(acknowledgment).nack(eq(1), any());
+    }
+
+    private ConsumerRecord<String, TaskUpdatedStatusEvent> record(long taskId, long dueInMs) {
+        ConsumerRecord<String, TaskUpdatedStatusEvent> record = new ConsumerRecord<>("task-status-retry-0", 0, offset++, String.valueOf(taskId), new TaskUpdatedStatusEvent(taskId, "Completed"));
+        record.headers().add(RetryTopics.NOT_BEFORE_HEADER, ByteBuffer.allocate(Long.BYTES).putLong(System.currentTimeMillis() + dueInMs).array());
+        return record;
+    }
+}
@@ -0,0 +1,76 @@
+package app.kafka.retry;
+
+import app.common.event.TaskEventHeaders;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.serializer.DelegatingByTypeSerializer;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@EmbeddedKafka(partitions = 1, topics = {"task-status", "task-status-dlt"})
+class DeadLetterReplayerTests {
+
+    private static final byte[] PAYLOAD = "original bytes".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void replayKeepsOriginalHeadersAndDropsRetryState(EmbeddedKafkaBroker broker) throws Exception {
+        RetryTopics retryTopics = new RetryTopics();
+        ReflectionTestUtils.setField(retryTopics, "mainTopic", "task-status");
+        KafkaTemplate<String, Object> template = template(broker);
+        DeadLetterReplayer replayer = new DeadLetterReplayer(retryTopics, template, new MockEnvironment()
+                .withProperty("spring.kafka.consumer.bootstrap-servers", broker.getBrokersAsString())
+                .withProperty("spring.kafka.consumer.group-id", "notifications"));
+        ReflectionTestUtils.setField(replayer, "replayTimeoutMs", 10_000L);
+
+        ProducerRecord<String, Object> dead = new ProducerRecord<>("task-status-dlt", "1", PAYLOAD);
+        dead.headers().add(TaskEventHeaders.VERSION, TaskEventHeaders.encodeVersion(7));
+        dead.headers().add(new RecordHeader(RetryTopics.ATTEMPT_HEADER, ByteBuffer.allocate(Integer.BYTES).putInt(3).array()));
+        dead.headers().add(new RecordHeader(KafkaHeaders.DLT_EXCEPTION_MESSAGE, "SMTP is down".getBytes(StandardCharsets.UTF_8)));
+        template.send(dead).get();
+
+        assertEquals(1, replayer.replay(10));
+        // Прогресс хранится в offset'ах группы: повторный вызов ничего не переигрывает
+        assertEquals(0, replayer.replay(10));
+
+        try (Consumer<String, byte[]> consumer = new DefaultKafkaConsumerFactory<>(KafkaTestUtils.consumerProps("check", "false", broker),
+                new StringDeserializer(), new ByteArrayDeserializer()).createConsumer()) {
+            broker.consumeFromAnEmbeddedTopic(consumer, "task-status");
+            ConsumerRecord<String, byte[]> replayed = KafkaTestUtils.getSingleRecord(consumer, "task-status");
+
+            assertEquals("1", replayed.key());
+            assertArrayEquals(PAYLOAD, replayed.value());
+            assertArrayEquals(TaskEventHeaders.encodeVersion(7), replayed.headers().lastHeader(TaskEventHeaders.VERSION).value());
+            assertNull(replayed.headers().lastHeader(RetryTopics.ATTEMPT_HEADER));
+            assertNull(replayed.headers().lastHeader(KafkaHeaders.DLT_EXCEPTION_MESSAGE));
+        }
+    }
+
+    private static KafkaTemplate<String, Object> template(EmbeddedKafkaBroker broker) {
+        Map<Class<?>, Serializer<?>> serializers = Map.of(byte[].class, new ByteArraySerializer());
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(KafkaTestUtils.producerProps(broker),
+                new StringSerializer(), new DelegatingByTypeSerializer(serializers)));
+    }
+}
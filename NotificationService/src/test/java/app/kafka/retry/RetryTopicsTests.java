@@ -0,0 +1,107 @@
+package app.kafka.retry;
+
+import app.common.event.TaskEventHeaders;
+import app.event.TaskUpdatedStatusEvent;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.mail.MailSendException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RetryTopicsTests {
+
+    private RetryTopics retryTopics;
+
+    @BeforeEach
+    void setUp() {
+        retryTopics = new RetryTopics();
+        ReflectionTestUtils.setField(retryTopics, "mainTopic", "task-status");
+        ReflectionTestUtils.setField(retryTopics, "attempts", 3);
+        ReflectionTestUtils.setField(retryTopics, "initialIntervalMs", 1000L);
+        ReflectionTestUtils.setField(retryTopics, "multiplier", 2.0);
+        ReflectionTestUtils.setField(retryTopics, "maxIntervalMs", 3000L);
+        retryTopics.init();
+    }
+
+    @Test
+    void everyAttemptGoesToItsOwnTierAndTheLastOneToTheDlt() {
+        MailSendException error = new MailSendException("SMTP is down");
+
+        assertEquals("task-status-retry-0", retryTopics.destination(record(null), error).topic());
+        assertEquals("task-status-retry-1", retryTopics.destination(record(1), error).topic());
+        assertEquals("task-status-retry-2", retryTopics.destination(record(2), error).topic());
+        assertEquals("task-status-dlt", retryTopics.destination(record(3), error).topic());
+    }
+
+    @Test
+    void onlyUnreadableRecordsSkipTheRetries() {
+        DeserializationException unreadable = new DeserializationException("broken", new byte[]{1}, false, null);
+
+        assertEquals("task-status-dlt", retryTopics.destination(record(null), new IllegalStateException("wrapped", unreadable)).topic());
+        assertEquals("task-status-retry-0", retryTopics.destination(record(null), new IllegalArgumentException("bad argument")).topic());
+    }
+
+    @Test
+    void delayGrowsUpToTheMaximum() {
+        assertEquals(1000, retryTopics.delayMs(0));
+        assertEquals(2000, retryTopics.delayMs(1));
+        assertEquals(3000, retryTopics.delayMs(2));
+    }
+
+    @Test
+    void recovererHandsTheLastAttemptToTheDltWithTheOriginalHeaders() {
+        @SuppressWarnings("unchecked")
+        KafkaTemplate<String, Object> template = mock(KafkaTemplate.class);
+        @SuppressWarnings("unchecked")
+        SendResult<String, Object> result = mock(SendResult.class);
+        when(template.send(ArgumentMatchers.<ProducerRecord<String, Object>>any())).thenReturn(CompletableFuture.completedFuture(result));
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(template, retryTopics::destination);
+        recoverer.setHeadersFunction(retryTopics::nextAttemptHeaders);
+        recoverer.setAppendOriginalHeaders(false);
+
+        ConsumerRecord<String, Object> failed = record(2);
+        recoverer.accept(failed, new MailSendException("SMTP is down"));
+        ConsumerRecord<String, Object> lastAttempt = record(3);
+        recoverer.accept(lastAttempt, new MailSendException("SMTP is down"));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<ProducerRecord<String, Object>> sent = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(template, times(2)).send(sent.capture());
+        ProducerRecord<String, Object> retry = sent.getAllValues().get(0);
+        assertEquals("task-status-retry-2", retry.topic());
+        assertEquals(3, ByteBuffer.wrap(retry.headers().lastHeader(RetryTopics.ATTEMPT_HEADER).value()).getInt());
+        assertTrue(ByteBuffer.wrap(retry.headers().lastHeader(RetryTopics.NOT_BEFORE_HEADER).value()).getLong() > System.currentTimeMillis());
+
+        ProducerRecord<String, Object> dead = sent.getAllValues().get(1);
+        assertEquals("task-status-dlt", dead.topic());
+        assertEquals("1", dead.key());
+        assertArrayEquals(TaskEventHeaders.encodeVersion(7), dead.headers().lastHeader(TaskEventHeaders.VERSION).value());
+    }
+
+    private static ConsumerRecord<String, Object> record(Integer attempt) {
+        ConsumerRecord<String, Object> record = new ConsumerRecord<>("task-status", 0, 0, "1", new TaskUpdatedStatusEvent(1L, "Completed"));
+        record.headers().add(TaskEventHeaders.VERSION, TaskEventHeaders.encodeVersion(7));
+        if (attempt != null) {
+            record.headers().add(RetryTopics.ATTEMPT_HEADER, ByteBuffer.allocate(Integer.BYTES).putInt(attempt).array());
+        }
+        return record;
+    }
+}
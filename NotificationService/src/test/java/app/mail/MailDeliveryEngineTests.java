@@ -0,0 +1,102 @@
+package app.mail;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MailDeliveryEngineTests {
+
+    private static final int MAX_CONNECTIONS = 2;
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private SmtpTransportPool pool;
+    private MailDeliveryEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost(ServerSetupTest.SMTP.getBindAddress());
+        mailSender.setPort(ServerSetupTest.SMTP.getPort());
+
+        pool = new SmtpTransportPool(mailSender, MAX_CONNECTIONS, 100, 10000);
+        engine = new MailDeliveryEngine(mailSender, pool, MAX_CONNECTIONS, 5);
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.close();
+    }
+
+    @Test
+    void sendsManyMessagesOverFewConnections() {
+        CompletableFuture<?>[] sends = IntStream.range(0, 50)
+                .mapToObj(i -> engine.submit(message("user" + i + "@example.com")))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(sends).join();
+
+        assertEquals(50, greenMail.getReceivedMessages().length);
+        assertTrue(pool.createdConnections() <= MAX_CONNECTIONS);
+        assertEquals(0, engine.queueDepth());
+    }
+
+    @Test
+    void failedDeliveryCompletesExceptionallyAndFreesTheSlot() {
+        greenMail.stop();
+
+        CompletableFuture<Void> send = engine.submit(message("user@example.com"));
+
+        assertTrue(send.handle((ignored, e) -> e != null).join());
+        assertEquals(0, engine.queueDepth());
+        assertEquals(0, pool.openConnections());
+    }
+
+    @Test
+    void discardedConnectionWakesUpWaitingBorrower() throws Exception {
+        SmtpTransportPool.PooledTransport first = pool.borrow();
+        pool.borrow();
+
+        AtomicReference<Thread> borrower = new AtomicReference<>();
+        CompletableFuture<SmtpTransportPool.PooledTransport> waiting = CompletableFuture.supplyAsync(() -> {
+            borrower.set(Thread.currentThread());
+            try {
+                return pool.borrow();
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        });
+        while (borrower.get() == null || borrower.get().getState() != Thread.State.TIMED_WAITING) {
+            Thread.onSpinWait();
+        }
+        pool.release(first, true);
+
+        // Таймаут пула 10 секунд: без сигнала о свободном слоте ожидающий получил бы ошибку только по нему
+        assertNotNull(waiting.get(2, TimeUnit.SECONDS));
+        assertEquals(MAX_CONNECTIONS, pool.openConnections());
+    }
+
+    private static SimpleMailMessage message(String to) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom("no-reply@example.com");
+        message.setTo(to);
+        message.setSubject("Изменение статуса задачи");
+        message.setText("Статус задачи с ID 1 изменился на Completed");
+        return message;
+    }
+}
@@ -1,8 +1,14 @@
 package app;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.core.Ordered;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
+// Кэш оборачивает транзакцию: запись и вытеснение происходят уже после коммита
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
 public class TaskService {
 
     public static void main(String[] args) {
@@ -1,9 +0,0 @@
-package app.aspect.annotation;
-
-import java.lang.annotation.ElementType;
-import java.lang.annotation.Target;
-
-@Target({ElementType.TYPE, ElementType.METHOD})
-public @interface CustomLogging {
-
-}
@@ -2,17 +2,26 @@ package app.controller;
 
 
 import app.controller.advice.annotation.CustomExceptionHandler;
+import app.dto.BatchResultDto;
+import app.dto.BatchUpdateTaskDto;
 import app.dto.CreateTaskDto;
+import app.dto.TaskChangesDto;
 import app.dto.TaskDto;
+import app.dto.TaskSliceDto;
+import app.dto.TaskStatsDto;
 import app.dto.UpdateTaskDto;
-import app.event.TaskUpdatedStatusEvent;
-import app.kafka.KafkaClientProducer;
+import app.entity.Status;
+import app.service.TaskExport;
 import app.service.TaskService;
+import app.service.TaskStatsService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
 import java.util.List;
 
@@ -23,9 +32,10 @@ import java.util.List;
 public class TaskController {
 
     private final TaskService taskService;
-    private final KafkaClientProducer<TaskUpdatedStatusEvent> kafkaClientProducer;
-    @Value("${spring.kafka.producer.topics[0].name}")
-    private String topic;
+    private final TaskStatsService taskStatsService;
+
+    @Value("${task.export-timeout-ms}")
+    private Long exportTimeoutMs;
 
     @PostMapping()
     public TaskDto create(@RequestBody CreateTaskDto dto) {
@@ -39,9 +49,7 @@ public class TaskController {
 
     @PutMapping("/{id}")
     public TaskDto update(@PathVariable Long id, @RequestBody UpdateTaskDto dto) {
-        TaskDto taskDto = taskService.update(id, dto);
-        kafkaClientProducer.sendTo(topic, new TaskUpdatedStatusEvent(taskDto.id(), taskDto.status()));
-        return taskDto;
+        return taskService.update(id, dto);
     }
 
     @DeleteMapping("/{id}")
@@ -50,10 +58,68 @@ public class TaskController {
         return HttpStatus.OK;
     }
 
+    @PostMapping("/batch")
+    public List<BatchResultDto> createAll(@RequestBody List<CreateTaskDto> dtos) {
+        return taskService.createAll(dtos);
+    }
+
+    @PutMapping("/batch")
+    public List<BatchResultDto> updateAll(@RequestBody List<BatchUpdateTaskDto> dtos) {
+        return taskService.updateAll(dtos);
+    }
+
+    @DeleteMapping("/batch")
+    public List<BatchResultDto> removeAll(@RequestBody List<Long> ids) {
+        return taskService.removeAll(ids);
+    }
+
     @GetMapping()
-    public List<TaskDto> list(@RequestParam(required = false, defaultValue = "0") int page,
+    public List<TaskDto> list(@RequestParam(required = false) Long userId,
+                              @RequestParam(required = false) Status status,
+                              @RequestParam(required = false, defaultValue = "0") int page,
                               @RequestParam(required = false, defaultValue = "100") int size) {
-        return taskService.getList(PageRequest.of(page,size));
+        return taskService.getList(userId, status, PageRequest.of(page,size));
+    }
+
+    @GetMapping("/stats")
+    public TaskStatsDto stats() {
+        return taskStatsService.getStats();
+    }
+
+    @GetMapping("/scroll")
+    public TaskSliceDto scroll(@RequestParam(required = false) Long userId,
+                               @RequestParam(required = false) Status status,
+                               @RequestParam(required = false) String cursor,
+                               @RequestParam(required = false, defaultValue = "100") int size) {
+        return taskService.getSlice(userId, status, cursor, size);
+    }
+
+    @GetMapping("/search")
+    public TaskSliceDto search(@RequestParam String q,
+                               @RequestParam(required = false) String cursor,
+                               @RequestParam(required = false, defaultValue = "100") int size) {
+        return taskService.search(q, cursor, size);
+    }
+
+    @GetMapping("/changes")
+    public TaskChangesDto changes(@RequestParam(required = false) String since,
+                                  @RequestParam(required = false, defaultValue = "1000") int limit) {
+        return taskService.getChanges(since, limit);
+    }
+
+    // Свой таймаут только у выгрузки; разрешение возвращается и при обрыве, таймауте или отказе пула потоков
+    @GetMapping("/export")
+    public WebAsyncTask<Void> export(HttpServletResponse response) {
+        TaskExport export = taskService.export();
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        WebAsyncTask<Void> task = new WebAsyncTask<>(exportTimeoutMs, () -> {
+            try (export) {
+                export.writeTo(response.getOutputStream());
+            }
+            return null;
+        });
+        task.onCompletion(export::close);
+        return task;
     }
 
 }
@@ -0,0 +1,20 @@
+package app.controller.advice;
+
+
+import app.exception.BadRequestException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.time.Instant;
+
+@RestControllerAdvice
+public class BadRequestExceptionHandler {
+
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler(BadRequestException.class)
+    public Response handleBadRequestException(BadRequestException e) {
+        return new Response(HttpStatus.BAD_REQUEST.value(), e.getMessage(), Instant.now());
+    }
+}
@@ -0,0 +1,22 @@
+package app.controller.advice;
+
+
+import app.exception.ConflictException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.time.Instant;
+
+@RestControllerAdvice
+public class ConflictExceptionHandler {
+
+    // Конфликт @Version при flush пакетного обновления означает то же, что и несовпадение ожидаемой версии
+    @ResponseStatus(HttpStatus.CONFLICT)
+    @ExceptionHandler({ConflictException.class, OptimisticLockingFailureException.class})
+    public Response handleConflictException(RuntimeException e) {
+        return new Response(HttpStatus.CONFLICT.value(), e.getMessage(), Instant.now());
+    }
+}
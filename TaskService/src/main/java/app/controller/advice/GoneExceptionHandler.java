@@ -0,0 +1,20 @@
+package app.controller.advice;
+
+
+import app.exception.GoneException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.time.Instant;
+
+@RestControllerAdvice
+public class GoneExceptionHandler {
+
+    @ResponseStatus(HttpStatus.GONE)
+    @ExceptionHandler(GoneException.class)
+    public Response handleGoneException(GoneException e) {
+        return new Response(HttpStatus.GONE.value(), e.getMessage(), Instant.now());
+    }
+}
@@ -3,13 +3,13 @@ package app.controller.advice;
 
 import app.exception.NotFoundException;
 import org.springframework.http.HttpStatus;
-import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
 import java.time.Instant;
 
-@ControllerAdvice
+@RestControllerAdvice
 public class NotFoundExceptionHandler {
 
     @ResponseStatus(HttpStatus.NOT_FOUND)
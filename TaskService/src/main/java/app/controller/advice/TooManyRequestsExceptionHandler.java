@@ -0,0 +1,20 @@
+package app.controller.advice;
+
+
+import app.exception.TooManyRequestsException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.time.Instant;
+
+@RestControllerAdvice
+public class TooManyRequestsExceptionHandler {
+
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+    @ExceptionHandler(TooManyRequestsException.class)
+    public Response handleTooManyRequestsException(TooManyRequestsException e) {
+        return new Response(HttpStatus.TOO_MANY_REQUESTS.value(), e.getMessage(), Instant.now());
+    }
+}
@@ -0,0 +1,17 @@
+package app.dto;
+
+public record BatchResultDto(
+        int index,
+        Long id,
+        TaskDto task,
+        String error
+) {
+
+    public static BatchResultDto success(int index, TaskDto task) {
+        return new BatchResultDto(index, task.id(), task, null);
+    }
+
+    public static BatchResultDto failure(int index, Long id, String error) {
+        return new BatchResultDto(index, id, null, error);
+    }
+}
@@ -0,0 +1,14 @@
+package app.dto;
+
+
+import app.entity.Status;
+
+public record BatchUpdateTaskDto(
+        Long id,
+        String title,
+        String description,
+        Status status,
+        Long userId,
+        Long version
+) {
+}
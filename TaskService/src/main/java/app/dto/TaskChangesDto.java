@@ -0,0 +1,11 @@
+package app.dto;
+
+import java.util.List;
+
+public record TaskChangesDto(
+        List<TaskDto> changed,
+        List<Long> deleted,
+        String nextToken,
+        boolean hasMore
+) {
+}
@@ -7,5 +7,6 @@ public record TaskDto(
         String title,
         String description,
         Status status,
-        Long userId
+        Long userId,
+        Long version
 ) {}
@@ -0,0 +1,9 @@
+package app.dto;
+
+import java.util.List;
+
+public record TaskSliceDto(
+        List<TaskDto> items,
+        String nextCursor
+) {
+}
@@ -0,0 +1,10 @@
+package app.dto;
+
+import app.entity.Status;
+
+import java.util.Map;
+
+public record TaskStatsDto(
+        Map<Status, Long> byStatus,
+        Map<Long, Long> byUser
+) {}
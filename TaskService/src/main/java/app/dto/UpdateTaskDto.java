@@ -7,6 +7,7 @@ public record UpdateTaskDto(
         String title,
         String description,
         Status status,
-        Long userId
+        Long userId,
+        Long version // ожидаемая версия: при расхождении 409 вместо перезаписи чужого изменения
 ) {
 }
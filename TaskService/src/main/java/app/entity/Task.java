@@ -12,7 +12,8 @@ import lombok.*;
 @Setter
 @Table(name = "tasks")
 public class Task {
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "task_id_seq")
+    @SequenceGenerator(name = "task_id_seq", sequenceName = "task_id_seq", allocationSize = 50)
     @Id
     private Long id;
     @Column(name = "title")
@@ -24,4 +25,8 @@ public class Task {
     private Status status;
     @Column(name = "user_id")
     private Long userId;
+    // Растёт при каждом изменении (в том числе триггером для нативных запросов), защищает пакетное обновление от потери записи
+    @Version
+    @Column(name = "version")
+    private Long version;
 }
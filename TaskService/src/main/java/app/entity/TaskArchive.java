@@ -0,0 +1,33 @@
+package app.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.Instant;
+
+@Entity
+@Immutable
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Getter
+@Setter
+@Table(name = "tasks_archive")
+public class TaskArchive {
+    @Id
+    private Long id;
+    @Column(name = "title")
+    private String title;
+    @Column(name = "description")
+    private String description;
+    @Column(name = "status")
+    @Enumerated(EnumType.STRING)
+    private Status status;
+    @Column(name = "user_id")
+    private Long userId;
+    @Column(name = "version")
+    private Long version;
+    @Column(name = "archived_at")
+    private Instant archivedAt;
+}
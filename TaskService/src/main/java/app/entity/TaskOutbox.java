@@ -0,0 +1,34 @@
+package app.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Getter
+@Setter
+@Table(name = "task_outbox")
+public class TaskOutbox {
+    // Без пула id: каждый узел берёт nextval после блокировки строки задачи, поэтому порядок id
+    // совпадает с порядком изменений задачи, на нём держатся relay и версия события
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "task_outbox_id_seq")
+    @SequenceGenerator(name = "task_outbox_id_seq", sequenceName = "task_outbox_id_seq", allocationSize = 1)
+    @Id
+    private Long id;
+    @Column(name = "type")
+    @Enumerated(EnumType.STRING)
+    private TaskOutboxType type;
+    @Column(name = "topic")
+    private String topic;
+    @Column(name = "task_id")
+    private Long taskId;
+    @Column(name = "status")
+    @Enumerated(EnumType.STRING)
+    private Status status;
+    @Column(name = "created_at")
+    private Instant createdAt;
+}
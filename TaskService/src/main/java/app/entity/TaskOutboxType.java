@@ -0,0 +1,6 @@
+package app.entity;
+
+public enum TaskOutboxType {
+    STATUS, // смена статуса для NotificationService
+    CHANGE  // любое изменение задачи для ленты task-changes
+}
@@ -0,0 +1,8 @@
+package app.exception;
+
+public class GoneException extends RuntimeException {
+    public GoneException(String message) {
+        super(message);
+    }
+
+}
@@ -2,40 +2,53 @@ package app.kafka;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
-import org.springframework.stereotype.Component;
 
 import java.util.Date;
-import java.util.UUID;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
-@Component
 @RequiredArgsConstructor
 @Slf4j
 public class KafkaClientProducer<V> {
 
     private final KafkaTemplate<java.lang.String, V> kafkaTemplate;
+    private final KeyStrategy<V> keyStrategy;
+    private final Executor callbackExecutor;
 
-    public void sendTo(String topic, V message) {
-        String idMessage = UUID.randomUUID().toString();
+    public CompletableFuture<SendResult<String, V>> sendTo(String topic, V message) {
+        return sendTo(topic, message, List.of());
+    }
+
+    public CompletableFuture<SendResult<String, V>> sendTo(String topic, V message, Iterable<Header> headers) {
+        return sendTo(topic, keyStrategy.keyFor(message), message, headers);
+    }
+
+    // Явный ключ нужен для tombstone: у пустого сообщения ключ не вычислить
+    public CompletableFuture<SendResult<String, V>> sendTo(String topic, String idMessage, V message, Iterable<Header> headers) {
         CompletableFuture<SendResult<String, V>> future = kafkaTemplate
-                .send(topic, idMessage, message);
+                .send(new ProducerRecord<>(topic, null, idMessage, message, headers));
 
-        future.whenComplete((result, exception) -> {
+        // Колбэки и всё, что вызывающий навесит на future, выполняются вне I/O-потока продюсера
+        CompletableFuture<SendResult<String, V>> completion = future.whenCompleteAsync((result, exception) -> {
             if (exception != null) {
                 log.error("Error while sending event: {}", exception.getMessage());
-            } else {
-                log.info("Successfully sent message to topic: {}", result.getProducerRecord().topic());
-                log.info("Partition: {}", result.getRecordMetadata().partition());
-                log.info("Offset: {}", result.getRecordMetadata().offset());
-                log.info("Key: {}", result.getProducerRecord().key());
-                log.info("Value: {}", result.getProducerRecord().value());
-                log.info("Timestamp: {}", new Date(result.getRecordMetadata().timestamp()));
+            } else if (log.isDebugEnabled()) {
+                log.debug("Successfully sent message to topic: {}, partition: {}, offset: {}, key: {}, timestamp: {}",
+                        result.getProducerRecord().topic(),
+                        result.getRecordMetadata().partition(),
+                        result.getRecordMetadata().offset(),
+                        result.getProducerRecord().key(),
+                        new Date(result.getRecordMetadata().timestamp()));
             }
-        });
+        }, callbackExecutor);
 
-        log.info("Message sent to topic: {}, idMessage: {}", topic, idMessage);
+        log.debug("Message sent to topic: {}, idMessage: {}", topic, idMessage);
+        return completion;
     }
 
 }
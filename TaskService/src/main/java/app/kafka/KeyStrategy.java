@@ -0,0 +1,13 @@
+package app.kafka;
+
+import java.util.UUID;
+
+@FunctionalInterface
+public interface KeyStrategy<V> {
+
+    String keyFor(V message);
+
+    static <V> KeyStrategy<V> random() {
+        return message -> UUID.randomUUID().toString();
+    }
+}
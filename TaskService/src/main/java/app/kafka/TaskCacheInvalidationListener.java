@@ -0,0 +1,31 @@
+package app.kafka;
+
+import app.service.Impl.TaskServiceImpl;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(value = "task.cache.broadcast.enabled", havingValue = "true")
+public class TaskCacheInvalidationListener {
+
+    private final CacheManager cacheManager;
+
+    // task-changes получает запись на любое изменение задачи, включая удаление (tombstone), в отличие от топика статусов.
+    // Для вытеснения достаточно ключа, тело записи не разбирается
+    @KafkaListener(topics = "${spring.kafka.producer.topics[1].name}", containerFactory = "cacheInvalidationListenerContainerFactory")
+    public void handle(ConsumerRecord<String, byte[]> record) {
+        Cache cache = cacheManager.getCache(TaskServiceImpl.TASKS_CACHE);
+        if (record.key() != null && cache != null) {
+            cache.evict(Long.valueOf(record.key()));
+            log.debug("Evicted task {} from cache", record.key());
+        }
+    }
+}
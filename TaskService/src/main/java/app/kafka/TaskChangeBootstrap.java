@@ -0,0 +1,114 @@
+package app.kafka;
+
+import app.dto.TaskDto;
+import app.entity.Task;
+import app.mapper.task.TaskMapper;
+import app.repository.TaskRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the current state of every task to the task-changes topic once at startup, so that a new consumer of
+ * the compacted topic can start from a full table. The id range is split between parallel workers, each of them
+ * pages through its range by keyset. Rows of a page stay locked FOR SHARE until Kafka acknowledges them, so a
+ * concurrent update commits, and is relayed from the outbox, only after the snapshot of that row.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(value = "task.changes.bootstrap.enabled", havingValue = "true")
+public class TaskChangeBootstrap implements ApplicationRunner {
+
+    private final TaskRepository taskRepository;
+    private final TaskMapper taskMapper;
+    private final KafkaClientProducer<TaskDto> taskChangeProducer;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${spring.kafka.producer.topics[1].name}")
+    private String changesTopic;
+
+    @Value("${task.changes.bootstrap.parallelism}")
+    private Integer parallelism;
+
+    @Value("${task.changes.bootstrap.page-size}")
+    private Integer pageSize;
+
+    @Value("${task.outbox.send-timeout-ms}")
+    private Long sendTimeoutMs;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Long minId = taskRepository.findMinId();
+        Long maxId = taskRepository.findMaxId();
+        if (minId == null || maxId == null) {
+            log.info("Task changes bootstrap: table is empty");
+            return;
+        }
+
+        long start = System.nanoTime();
+        long span = (maxId - minId) / parallelism + 1;
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        List<Future<Long>> ranges = new ArrayList<>(parallelism);
+        long published = 0;
+        try (ExecutorService workers = Executors.newFixedThreadPool(parallelism)) {
+            for (int i = 0; i < parallelism; i++) {
+                long afterId = minId - 1 + i * span;
+                long toId = Math.min(maxId, afterId + span);
+                ranges.add(workers.submit(() -> publishRange(transaction, afterId, toId)));
+            }
+            for (Future<Long> range : ranges) {
+                published += range.get();
+            }
+        } catch (Exception e) {
+            // Сервис продолжает работать; повторный запуск с тем же флагом просто перезапишет ключи в топике
+            log.error("Task changes bootstrap failed after {} tasks: {}", published, e.getMessage());
+            return;
+        }
+        log.info("Task changes bootstrap published {} tasks to {} in {} ms", published, changesTopic,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private long publishRange(TransactionTemplate transaction, long afterId, long toId) {
+        long published = 0;
+        long after = afterId;
+        while (after < toId) {
+            long pageAfter = after;
+            List<Task> page = transaction.execute(status -> publishPage(pageAfter, toId));
+            if (page == null || page.isEmpty()) {
+                break;
+            }
+            published += page.size();
+            after = page.get(page.size() - 1).getId();
+        }
+        log.debug("Task changes bootstrap: range ({}, {}] published {} tasks", afterId, toId, published);
+        return published;
+    }
+
+    private List<Task> publishPage(long afterId, long toId) {
+        List<Task> page = taskRepository.lockRangePage(afterId, toId, pageSize);
+        CompletableFuture<?>[] futures = page.stream()
+                .map(task -> taskChangeProducer.sendTo(changesTopic, taskMapper.toDto(task)))
+                .toArray(CompletableFuture[]::new);
+        try {
+            CompletableFuture.allOf(futures).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException("Snapshot page after id " + afterId + " was not acknowledged by Kafka", e);
+        }
+        return page;
+    }
+}
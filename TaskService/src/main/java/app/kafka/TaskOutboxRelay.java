@@ -0,0 +1,115 @@
+package app.kafka;
+
+import app.common.event.TaskEventHeaders;
+import app.dto.TaskDto;
+import app.entity.Task;
+import app.entity.TaskOutbox;
+import app.entity.TaskOutboxType;
+import app.event.TaskUpdatedStatusEvent;
+import app.mapper.task.TaskMapper;
+import app.repository.TaskOutboxRepository;
+import app.repository.TaskRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(value = "spring.kafka.producer.enable", havingValue = "true", matchIfMissing = true)
+public class TaskOutboxRelay {
+
+    private final TaskOutboxRepository taskOutboxRepository;
+    private final KafkaClientProducer<TaskUpdatedStatusEvent> kafkaClientProducer;
+    private final KafkaClientProducer<TaskDto> taskChangeProducer;
+    private final TaskRepository taskRepository;
+    private final TaskMapper taskMapper;
+
+    @Value("${task.outbox.batch-size}")
+    private Integer batchSize;
+
+    @Value("${task.outbox.send-timeout-ms}")
+    private Long sendTimeoutMs;
+
+    @Value("${task.outbox.claim-lease-ms}")
+    private Long claimLeaseMs;
+
+    @Scheduled(fixedDelayString = "${task.outbox.poll-interval-ms}")
+    public void relay() {
+        try {
+            int relayed;
+            do {
+                relayed = relayBatch();
+            } while (relayed == batchSize);
+        } catch (Exception e) {
+            log.error("Error while relaying task outbox: {}", e.getMessage());
+        }
+    }
+
+    // Пачка захватывается короткой транзакцией, отправка и ожидание подтверждений идут без открытой транзакции
+    private int relayBatch() {
+        List<TaskOutbox> batch = new ArrayList<>(taskOutboxRepository.claimNextBatch(claimLeaseMs, batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        // RETURNING не гарантирует порядок, а отправлять нужно в порядке записи
+        batch.sort(Comparator.comparing(TaskOutbox::getId));
+
+        List<CompletableFuture<?>> futures = new ArrayList<>(batch.size());
+        // Несколько изменений одной задачи в пачке дают одно сообщение: отправляется текущее состояние
+        Map<Long, TaskOutbox> changes = new LinkedHashMap<>();
+        for (TaskOutbox entry : batch) {
+            if (entry.getType() == TaskOutboxType.CHANGE) {
+                changes.put(entry.getTaskId(), entry);
+            } else {
+                futures.add(kafkaClientProducer.sendTo(entry.getTopic(), new TaskUpdatedStatusEvent(entry.getTaskId(), entry.getStatus()), versionOf(entry)));
+            }
+        }
+        if (!changes.isEmpty()) {
+            futures.addAll(sendChanges(changes));
+        }
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException("Outbox batch was not acknowledged by Kafka, it will be retried after the claim lease", e);
+        }
+
+        taskOutboxRepository.deleteAllByIdInBatch(batch.stream().map(TaskOutbox::getId).toList());
+        return batch.size();
+    }
+
+    private List<CompletableFuture<?>> sendChanges(Map<Long, TaskOutbox> changes) {
+        Map<Long, Task> tasks = new HashMap<>();
+        taskRepository.findAllById(changes.keySet()).forEach(task -> tasks.put(task.getId(), task));
+
+        List<CompletableFuture<?>> futures = new ArrayList<>(changes.size());
+        changes.forEach((taskId, entry) -> {
+            Task task = tasks.get(taskId);
+            // Удалённая задача - tombstone: при компакции топик забудет ключ
+            futures.add(task == null
+                    ? taskChangeProducer.sendTo(entry.getTopic(), String.valueOf(taskId), null, versionOf(entry))
+                    : taskChangeProducer.sendTo(entry.getTopic(), taskMapper.toDto(task), versionOf(entry)));
+        });
+        return futures;
+    }
+
+    // id строки outbox растёт с каждым изменением: по нему получатель отличает повторную доставку от нового события
+    private static List<Header> versionOf(TaskOutbox entry) {
+        return List.of(new RecordHeader(TaskEventHeaders.VERSION, TaskEventHeaders.encodeVersion(entry.getId())));
+    }
+
+}
@@ -1,27 +1,38 @@
 package app.kafka.config;
 
+import app.dto.TaskDto;
 import app.event.TaskUpdatedStatusEvent;
 import app.kafka.KafkaClientProducer;
+import app.kafka.KeyStrategy;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.env.Environment;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.serializer.JsonSerializer;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 @Configuration
 @RequiredArgsConstructor
 @Slf4j
+@EnableConfigurationProperties(ProducerThroughputProperties.class)
 public class KafkaProducerConfiguration {
 
     private final Environment environment;
+    private final ProducerThroughputProperties throughputProperties;
+    private final ObjectMapper objectMapper;
 
     private Map<String, Object> producerConfig() {
         Map<String, Object> config = new HashMap<>();
@@ -30,6 +41,11 @@ public class KafkaProducerConfiguration {
         config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, environment.getProperty("spring.kafka.producer.value-serializer"));
         config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, environment.getProperty("spring.kafka.producer.idempotence"));
         config.put(ProducerConfig.ACKS_CONFIG, environment.getProperty("spring.kafka.producer.acks"));
+        config.putAll(throughputProperties.toProducerConfig());
+        // Без идемпотентности повтор отправки при нескольких запросах в полёте меняет порядок сообщений задачи
+        if (!environment.getProperty("spring.kafka.producer.idempotence", Boolean.class, false)) {
+            config.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 1);
+        }
         return config;
     }
 
@@ -43,10 +59,46 @@ public class KafkaProducerConfiguration {
         return new KafkaTemplate<>(producerFactory);
     }
 
+    // Лента task-changes: TaskDto в JSON без заголовков типа, чтобы читать её могли не только Spring-клиенты
+    @Bean
+    public ProducerFactory<String, TaskDto> taskChangeProducerFactory() {
+        JsonSerializer<TaskDto> valueSerializer = new JsonSerializer<>(objectMapper);
+        valueSerializer.setAddTypeInfo(false);
+        return new DefaultKafkaProducerFactory<>(producerConfig(), new StringSerializer(), valueSerializer);
+    }
+
+    @Bean("taskChange")
+    public KafkaTemplate<String, TaskDto> taskChangeKafkaTemplate(ProducerFactory<String, TaskDto> taskChangeProducerFactory) {
+        return new KafkaTemplate<>(taskChangeProducerFactory);
+    }
+
+    @Bean
+    @ConditionalOnProperty(value = "spring.kafka.producer.enable", havingValue = "true", matchIfMissing = true)
+    public KafkaClientProducer<TaskDto> taskChangeProducer(KafkaTemplate<String, TaskDto> taskChangeKafkaTemplate) {
+        return new KafkaClientProducer<>(taskChangeKafkaTemplate, task -> String.valueOf(task.id()), callbackExecutor());
+    }
+
+    // Ключ = id задачи: все изменения одной задачи попадают в одну партицию и читаются по порядку
+    @Bean
+    @ConditionalOnMissingBean
+    public KeyStrategy<TaskUpdatedStatusEvent> taskUpdatedStatusEventKeyStrategy() {
+        return event -> String.valueOf(event.taskId());
+    }
+
     @Bean
     @ConditionalOnProperty(value = "spring.kafka.producer.enable", havingValue = "true", matchIfMissing = true)
-    public KafkaClientProducer clientProducer(KafkaTemplate<String, TaskUpdatedStatusEvent> kafkaTemplate) {
-        return new KafkaClientProducer(kafkaTemplate);
+    public KafkaClientProducer<TaskUpdatedStatusEvent> kafkaClientProducer(KafkaTemplate<String, TaskUpdatedStatusEvent> kafkaTemplate,
+                                                                           KeyStrategy<TaskUpdatedStatusEvent> keyStrategy) {
+        return new KafkaClientProducer<>(kafkaTemplate, keyStrategy, callbackExecutor());
+    }
+
+    // Не бин: Executor в контексте отключил бы автоконфигурацию applicationTaskExecutor, на котором работает выгрузка задач.
+    // В режиме виртуальных потоков колбэки отправки уходят с I/O-потока продюсера, иначе выполняются на нём, как раньше
+    private Executor callbackExecutor() {
+        if (environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false)) {
+            return Thread::startVirtualThread;
+        }
+        return Runnable::run;
     }
 
 }
@@ -7,6 +7,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.env.Environment;
 import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.KafkaAdmin;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -17,30 +18,34 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class KafkaTopicsConfiguration {
 
+    private static final String TOPICS_PREFIX = "spring.kafka.producer.topics";
+
     private final Environment environment;
 
     @Bean
-    public List<NewTopic> createTopics() {
+    public KafkaAdmin.NewTopics createTopics() {
         List<NewTopic> topics = new ArrayList<>();
-        String[] topicNames = environment.getProperty("kafka.producer.topics", String[].class);
-
-        if (topicNames != null) {
-            for (String topicName : topicNames) {
-                int partitions = Optional.ofNullable(environment.getProperty("kafka.producer.topics[" + topicName + "].partitions", Integer.class)).orElse(1);
-                int replicas = Optional.ofNullable(environment.getProperty("kafka.producer.topics[" + topicName + "].replicas", Integer.class)).orElse(1);
-                String minInsyncReplicas = Optional.ofNullable(environment.getProperty("kafka.producer.topics[" + topicName + "].min-insync-replicas")).orElse("1");
-
-                NewTopic topic = TopicBuilder
-                        .name(topicName)
-                        .partitions(partitions)
-                        .replicas(replicas)
-                        .configs(Map.of(TopicConfig.MIN_IN_SYNC_REPLICAS_CONFIG, minInsyncReplicas))
-                        .build();
-
-                topics.add(topic);
-            }
+
+        for (int i = 0; environment.containsProperty(TOPICS_PREFIX + "[" + i + "].name"); i++) {
+            String topicPrefix = TOPICS_PREFIX + "[" + i + "]";
+            String topicName = environment.getProperty(topicPrefix + ".name");
+            int partitions = Optional.ofNullable(environment.getProperty(topicPrefix + ".partitions", Integer.class)).orElse(1);
+            int replicas = Optional.ofNullable(environment.getProperty(topicPrefix + ".replicas", Integer.class)).orElse(1);
+            String minInsyncReplicas = Optional.ofNullable(environment.getProperty(topicPrefix + ".min-insync-replicas")).orElse("1");
+            String cleanupPolicy = Optional.ofNullable(environment.getProperty(topicPrefix + ".cleanup-policy")).orElse(TopicConfig.CLEANUP_POLICY_DELETE);
+
+            NewTopic topic = TopicBuilder
+                    .name(topicName)
+                    .partitions(partitions)
+                    .replicas(replicas)
+                    .configs(Map.of(
+                            TopicConfig.MIN_IN_SYNC_REPLICAS_CONFIG, minInsyncReplicas,
+                            TopicConfig.CLEANUP_POLICY_CONFIG, cleanupPolicy))
+                    .build();
+
+            topics.add(topic);
         }
-        return topics;
+        return new KafkaAdmin.NewTopics(topics.toArray(NewTopic[]::new));
     }
 
 }
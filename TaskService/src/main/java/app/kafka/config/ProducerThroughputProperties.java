@@ -0,0 +1,28 @@
+package app.kafka.config;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "kafka.producer.throughput")
+public record ProducerThroughputProperties(
+        @DefaultValue("0") Integer lingerMs,
+        @DefaultValue("16384") Integer batchSize,
+        @DefaultValue("none") String compressionType,
+        @DefaultValue("33554432") Long bufferMemory,
+        @DefaultValue("5") Integer maxInFlightRequestsPerConnection
+) {
+
+    public Map<String, Object> toProducerConfig() {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        config.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        config.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+        config.put(ProducerConfig.BUFFER_MEMORY_CONFIG, bufferMemory);
+        config.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, maxInFlightRequestsPerConnection);
+        return config;
+    }
+}
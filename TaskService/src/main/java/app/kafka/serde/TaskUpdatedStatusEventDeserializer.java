@@ -0,0 +1,41 @@
+package app.kafka.serde;
+
+import app.common.event.TaskStatusEventCodec;
+import app.entity.Status;
+import app.event.TaskUpdatedStatusEvent;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+// Бинарные записи читаются кодеком, JSON-записи, отправленные до перехода на бинарный формат, - через JsonDeserializer
+public class TaskUpdatedStatusEventDeserializer implements Deserializer<TaskUpdatedStatusEvent> {
+
+    private final JsonDeserializer<TaskUpdatedStatusEvent> legacy = new JsonDeserializer<>(TaskUpdatedStatusEvent.class, false);
+
+    @Override
+    public TaskUpdatedStatusEvent deserialize(String topic, byte[] data) {
+        return deserialize(topic, null, data);
+    }
+
+    @Override
+    public TaskUpdatedStatusEvent deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (!TaskStatusEventCodec.isBinary(data)) {
+            return legacy.deserialize(topic, data);
+        }
+        try {
+            String status = TaskStatusEventCodec.status(data);
+            return new TaskUpdatedStatusEvent(TaskStatusEventCodec.taskId(data), status == null ? null : Status.valueOf(status));
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException("Can't deserialize task status event from " + topic, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        legacy.close();
+    }
+}
@@ -1,12 +1,20 @@
 package app.mapper.task;
 
 
+import app.dto.BatchUpdateTaskDto;
 import app.dto.CreateTaskDto;
 import app.dto.TaskDto;
 import app.dto.UpdateTaskDto;
+import org.mapstruct.BeanMapping;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
+import org.mapstruct.NullValuePropertyMappingStrategy;
 import app.entity.Task;
+import app.entity.TaskArchive;
+import app.repository.projection.TaskChangeRow;
+import app.repository.projection.TaskSearchResult;
+import app.repository.projection.TaskUpdateResult;
 
 @Mapper(componentModel = "spring")
 public interface TaskMapper extends BaseMapper<Task, TaskDto> {
@@ -17,5 +25,19 @@ public interface TaskMapper extends BaseMapper<Task, TaskDto> {
 
     Task toEntity(Long id, UpdateTaskDto dto);
 
+    Task toEntity(BatchUpdateTaskDto dto);
+
+    TaskDto toDto(TaskUpdateResult result);
+
+    TaskDto toDto(TaskSearchResult result);
+
+    TaskDto toDto(TaskChangeRow row);
+
+    TaskDto toDto(TaskArchive task);
+
+    // Пустые поля пакетного обновления оставляют прежние значения, как updateNonNullFields для одной задачи.
+    // Версию ведёт Hibernate: скопированная из запроса подменила бы проверку в WHERE
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "version", ignore = true)
     void update(@MappingTarget Task task, Task taskFromDto);
 }
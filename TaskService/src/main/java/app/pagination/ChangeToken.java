@@ -0,0 +1,38 @@
+package app.pagination;
+
+import app.exception.BadRequestException;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * Opaque position in the change feed: the transaction id and task id of the last returned change
+ * and the time the feed position was first handed out, used to detect tokens older than tombstone retention.
+ */
+public record ChangeToken(long txid, long afterId, long issuedAtMillis) {
+
+    private static final int BYTES = 3 * Long.BYTES;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    public String encode() {
+        return ENCODER.encodeToString(ByteBuffer.allocate(BYTES).putLong(txid).putLong(afterId).putLong(issuedAtMillis).array());
+    }
+
+    // null - синхронизация с начала
+    public static ChangeToken decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            byte[] bytes = DECODER.decode(token);
+            if (bytes.length != BYTES) {
+                throw new BadRequestException("Invalid change token: " + token);
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            return new ChangeToken(buffer.getLong(), buffer.getLong(), buffer.getLong());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid change token: " + token);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package app.pagination;
+
+import app.exception.BadRequestException;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * Opaque continuation token for keyset paging: the id of the last row of the previous slice,
+ * preceded by its rank for slices ordered by relevance.
+ */
+public final class KeysetCursor {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private KeysetCursor() {
+    }
+
+    public static String encode(long lastId) {
+        return ENCODER.encodeToString(ByteBuffer.allocate(Long.BYTES).putLong(lastId).array());
+    }
+
+    public static String encode(float rank, long lastId) {
+        return ENCODER.encodeToString(ByteBuffer.allocate(Float.BYTES + Long.BYTES).putFloat(rank).putLong(lastId).array());
+    }
+
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            byte[] bytes = DECODER.decode(cursor);
+            if (bytes.length != Long.BYTES) {
+                throw new BadRequestException("Invalid cursor: " + cursor);
+            }
+            return ByteBuffer.wrap(bytes).getLong();
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor: " + cursor);
+        }
+    }
+
+    // null - первая страница
+    public static RankedPosition decodeRanked(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            byte[] bytes = DECODER.decode(cursor);
+            if (bytes.length != Float.BYTES + Long.BYTES) {
+                throw new BadRequestException("Invalid cursor: " + cursor);
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            return new RankedPosition(buffer.getFloat(), buffer.getLong());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor: " + cursor);
+        }
+    }
+
+    public record RankedPosition(float rank, long id) {
+    }
+}
@@ -0,0 +1,55 @@
+package app.repository;
+
+
+import app.dto.TaskDto;
+import app.entity.TaskArchive;
+import app.repository.projection.TaskKeyView;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TaskArchiveRepository extends JpaRepository<TaskArchive, Long> {
+
+    Optional<TaskDto> findDtoById(Long id);
+
+    @Query(value = "SELECT task_archive_ensure_partitions()", nativeQuery = true)
+    int ensurePartitions();
+
+    // Действует до конца транзакции: триггер удаления tasks не пишет tombstone для перенесённых строк
+    @Query(value = "SELECT set_config('task.archiving', 'on', true)", nativeQuery = true)
+    String markArchiving();
+
+    // SKIP LOCKED: строки, которые сейчас меняют, уйдут в следующий запуск, параллельные архиваторы не мешают друг другу
+    @Modifying
+    @Query(value = """
+            WITH moved AS (
+                DELETE FROM tasks t
+                WHERE t.id IN (
+                    SELECT id FROM tasks
+                    WHERE status = 'Completed' AND updated_at < :completedBefore
+                    ORDER BY id
+                    LIMIT :limit
+                    FOR UPDATE SKIP LOCKED
+                )
+                RETURNING t.id, t.title, t.description, t.status, t.user_id, t.version, t.updated_at
+            )
+            INSERT INTO tasks_archive (id, title, description, status, user_id, version, updated_at, archived_at)
+            SELECT id, title, description, status, user_id, version, updated_at, now() FROM moved
+            """, nativeQuery = true)
+    int archiveCompleted(Instant completedBefore, int limit);
+
+    @Modifying
+    @Query(value = "DELETE FROM tasks_archive WHERE id IN (:ids)", nativeQuery = true)
+    int deleteAllByIds(List<Long> ids);
+
+    @Transactional
+    @Query(value = "DELETE FROM tasks_archive WHERE id = :id RETURNING id AS \"id\", status AS \"status\", user_id AS \"userId\"", nativeQuery = true)
+    Optional<TaskKeyView> deleteTaskById(Long id);
+}
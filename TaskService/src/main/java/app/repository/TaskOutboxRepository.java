@@ -0,0 +1,51 @@
+package app.repository;
+
+
+import app.entity.TaskOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface TaskOutboxRepository extends JpaRepository<TaskOutbox, Long> {
+
+    // Ключ advisory-блокировки, под которой relay разных узлов захватывают пачки по очереди
+    long CLAIM_LOCK_KEY = 0x7461736b6f7574L;
+
+    // Захват коммитится сразу: строки не держат блокировку, пока relay ждёт Kafka. Неподтверждённые снова
+    // становятся доступны по истечении claimed_until, attempts считает попытки.
+    // Порядок по задаче сохраняется и при нескольких relay: строка не захватывается, пока более ранняя строка
+    // той же задачи захвачена другим relay. Проверка видит чужой захват, только если захваты идут по очереди,
+    // поэтому перед ним берётся advisory-блокировка до конца транзакции
+    @Transactional
+    default List<TaskOutbox> claimNextBatch(long leaseMs, int limit) {
+        lockClaims(CLAIM_LOCK_KEY);
+        return claimUnordered(leaseMs, limit);
+    }
+
+    @Query(value = "SELECT 1 FROM (SELECT pg_advisory_xact_lock(:key)) AS claim_lock", nativeQuery = true)
+    Integer lockClaims(long key);
+
+    @Query(value = """
+            UPDATE task_outbox
+            SET claimed_until = now() + CAST(:leaseMs AS bigint) * interval '1 millisecond',
+                attempts = attempts + 1
+            WHERE id IN (
+                SELECT o.id FROM task_outbox o
+                WHERE (o.claimed_until IS NULL OR o.claimed_until < now())
+                  AND NOT EXISTS (
+                      SELECT 1 FROM task_outbox e
+                      WHERE e.task_id = o.task_id AND e.id < o.id AND e.claimed_until >= now()
+                  )
+                ORDER BY o.id
+                LIMIT :limit
+                FOR UPDATE SKIP LOCKED
+            )
+            RETURNING *
+            """, nativeQuery = true)
+    List<TaskOutbox> claimUnordered(long leaseMs, int limit);
+
+}
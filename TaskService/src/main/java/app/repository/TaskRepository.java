@@ -1,11 +1,134 @@
 package app.repository;
 
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import app.dto.TaskDto;
+import app.entity.Status;
 import app.entity.Task;
+import app.repository.projection.TaskChangeRow;
+import app.repository.projection.TaskKeyView;
+import app.repository.projection.TaskSearchResult;
+import app.repository.projection.TaskUpdateResult;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface TaskRepository extends JpaRepository<Task, Long> {
 
+    // Чтение сразу в TaskDto: select new по колонкам, без управляемых сущностей и снимков для dirty checking
+    Optional<TaskDto> findDtoById(Long id);
+
+    List<TaskDto> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    List<TaskDto> findByUserIdAndIdGreaterThanOrderByIdAsc(Long userId, Long id, Limit limit);
+
+    List<TaskDto> findByStatusAndIdGreaterThanOrderByIdAsc(Status status, Long id, Limit limit);
+
+    List<TaskDto> findByUserIdAndStatusAndIdGreaterThanOrderByIdAsc(Long userId, Status status, Long id, Limit limit);
+
+    List<TaskDto> findAllByOrderByIdAsc(Pageable pageable);
+
+    List<TaskDto> findByUserIdOrderByIdAsc(Long userId, Pageable pageable);
+
+    List<TaskDto> findByStatusOrderByIdAsc(Status status, Pageable pageable);
+
+    List<TaskDto> findByUserIdAndStatusOrderByIdAsc(Long userId, Status status, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new app.dto.TaskDto(t.id, t.title, t.description, t.status, t.userId, t.version) from Task t order by t.id")
+    Stream<TaskDto> streamAllOrderById();
+
+    @Query("select min(t.id) from Task t")
+    Long findMinId();
+
+    @Query("select max(t.id) from Task t")
+    Long findMaxId();
+
+    // FOR SHARE держит строки страницы до конца транзакции: параллельный update дождётся, пока снимок уйдёт в Kafka
+    @Query(value = "SELECT * FROM tasks WHERE id > :afterId AND id <= :toId ORDER BY id LIMIT :limit FOR SHARE", nativeQuery = true)
+    List<Task> lockRangePage(long afterId, long toId, int limit);
+
+    // Прежние status и user_id нужны для инкрементального пересчёта статистики
+    @Transactional
+    @Query(value = """
+            WITH previous AS (
+                SELECT id, status, user_id FROM tasks WHERE id = :id FOR UPDATE
+            )
+            UPDATE tasks t
+            SET title = COALESCE(CAST(:title AS varchar), t.title),
+                description = COALESCE(CAST(:description AS varchar), t.description),
+                status = COALESCE(CAST(:status AS varchar), t.status),
+                user_id = COALESCE(CAST(:userId AS bigint), t.user_id)
+            FROM previous
+            WHERE t.id = previous.id
+              AND (CAST(:expectedVersion AS bigint) IS NULL OR t.version = CAST(:expectedVersion AS bigint))
+            RETURNING t.id AS "id", t.title AS "title", t.description AS "description", t.status AS "status", t.user_id AS "userId",
+                      t.version AS "version", previous.status AS "previousStatus", previous.user_id AS "previousUserId"
+            """, nativeQuery = true)
+    Optional<TaskUpdateResult> updateNonNullFields(Long id, String title, String description, String status, Long userId, Long expectedVersion);
+
+    // GIN-индекс отбирает совпадения, ранг считается только по ним; страница продолжается после (rank, id) прошлой
+    @Query(value = """
+            SELECT r.id AS "id", r.title AS "title", r.description AS "description", r.status AS "status", r.user_id AS "userId",
+                   r.version AS "version", r.rank AS "rank"
+            FROM (
+                SELECT t.id, t.title, t.description, t.status, t.user_id, t.version, ts_rank(t.search_vector, q.query) AS rank
+                FROM tasks t, websearch_to_tsquery('simple', :query) AS q(query)
+                WHERE t.search_vector @@ q.query
+            ) r
+            WHERE CAST(:afterRank AS real) IS NULL
+               OR r.rank < CAST(:afterRank AS real)
+               OR (r.rank = CAST(:afterRank AS real) AND r.id > :afterId)
+            ORDER BY r.rank DESC, r.id
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<TaskSearchResult> search(String query, Float afterRank, long afterId, int limit);
+
+    // Все транзакции с id ниже xmin текущего снимка завершены: изменения под этой границей уже не появятся задним числом
+    @Query(value = "SELECT CAST(CAST(pg_snapshot_xmin(pg_current_snapshot()) AS text) AS bigint)", nativeQuery = true)
+    long currentChangeWatermark();
+
+    // Изменённые и удалённые задачи после позиции (change_txid, id) и ниже границы, каждая ветка идёт по своему индексу
+    @Query(value = """
+            SELECT c.id AS "id", c.title AS "title", c.description AS "description", c.status AS "status", c.user_id AS "userId",
+                   c.version AS "version", c.change_txid AS "changeTxid", c.deleted AS "deleted"
+            FROM (
+                (SELECT t.id, t.title, t.description, t.status, t.user_id, t.version, t.change_txid, false AS deleted
+                 FROM tasks t
+                 WHERE (t.change_txid, t.id) > (:fromTxid, :afterId) AND t.change_txid < :watermark
+                 ORDER BY t.change_txid, t.id
+                 LIMIT :limit)
+                UNION ALL
+                (SELECT ts.task_id, CAST(NULL AS varchar), CAST(NULL AS varchar), CAST(NULL AS varchar), CAST(NULL AS bigint),
+                        CAST(NULL AS bigint), ts.change_txid, true
+                 FROM task_tombstones ts
+                 WHERE (ts.change_txid, ts.task_id) > (:fromTxid, :afterId) AND ts.change_txid < :watermark
+                 ORDER BY ts.change_txid, ts.task_id
+                 LIMIT :limit)
+            ) c
+            ORDER BY c.change_txid, c.id
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<TaskChangeRow> findChanges(long fromTxid, long afterId, long watermark, int limit);
+
+    @Modifying
+    @Query(value = "DELETE FROM task_tombstones WHERE deleted_at < :before", nativeQuery = true)
+    int purgeTombstones(Instant before);
+
+    @Transactional
+    @Query(value = "DELETE FROM tasks WHERE id = :id RETURNING id AS \"id\", status AS \"status\", user_id AS \"userId\"", nativeQuery = true)
+    Optional<TaskKeyView> deleteTaskById(Long id);
+
 }
@@ -0,0 +1,46 @@
+package app.repository;
+
+
+import app.entity.TaskStat;
+import app.repository.projection.StatusCount;
+import app.repository.projection.UserCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface TaskStatRepository extends JpaRepository<TaskStat, Long> {
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO task_stats (user_id, status, task_count)
+            VALUES (CAST(:userId AS bigint), CAST(:status AS varchar), :delta)
+            ON CONFLICT ((COALESCE(user_id, -1)), (COALESCE(status, '')))
+            DO UPDATE SET task_count = task_stats.task_count + EXCLUDED.task_count
+            """, nativeQuery = true)
+    void increment(Long userId, String status, long delta);
+
+    @Query("select s.status as status, sum(s.taskCount) as count from TaskStat s where s.status is not null group by s.status")
+    List<StatusCount> countByStatus();
+
+    @Query("select s.userId as userId, sum(s.taskCount) as count from TaskStat s where s.userId is not null group by s.userId")
+    List<UserCount> countByUser();
+
+    @Modifying
+    @Query(value = "LOCK TABLE task_stats IN EXCLUSIVE MODE", nativeQuery = true)
+    void lock();
+
+    // Архивные задачи остаются в статистике: перенос в архив не меняет ни статус, ни исполнителя
+    @Modifying
+    @Query(value = """
+            INSERT INTO task_stats (user_id, status, task_count)
+            SELECT user_id, status, count(*)
+            FROM (SELECT user_id, status FROM tasks UNION ALL SELECT user_id, status FROM tasks_archive) t
+            GROUP BY user_id, status
+            """, nativeQuery = true)
+    void rebuild();
+
+}
@@ -0,0 +1,10 @@
+package app.repository.projection;
+
+import app.entity.Status;
+
+public interface StatusCount {
+
+    Status getStatus();
+
+    Long getCount();
+}
@@ -0,0 +1,20 @@
+package app.repository.projection;
+
+public interface TaskChangeRow {
+
+    Long getId();
+
+    String getTitle();
+
+    String getDescription();
+
+    String getStatus();
+
+    Long getUserId();
+
+    Long getVersion();
+
+    Long getChangeTxid();
+
+    Boolean getDeleted();
+}
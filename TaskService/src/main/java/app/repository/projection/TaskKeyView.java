@@ -0,0 +1,10 @@
+package app.repository.projection;
+
+public interface TaskKeyView {
+
+    Long getId();
+
+    String getStatus();
+
+    Long getUserId();
+}
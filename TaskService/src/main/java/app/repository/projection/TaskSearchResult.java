@@ -0,0 +1,18 @@
+package app.repository.projection;
+
+public interface TaskSearchResult {
+
+    Long getId();
+
+    String getTitle();
+
+    String getDescription();
+
+    String getStatus();
+
+    Long getUserId();
+
+    Long getVersion();
+
+    Float getRank();
+}
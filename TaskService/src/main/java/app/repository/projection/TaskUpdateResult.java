@@ -0,0 +1,20 @@
+package app.repository.projection;
+
+public interface TaskUpdateResult {
+
+    Long getId();
+
+    String getTitle();
+
+    String getDescription();
+
+    String getStatus();
+
+    Long getUserId();
+
+    Long getVersion();
+
+    String getPreviousStatus();
+
+    Long getPreviousUserId();
+}
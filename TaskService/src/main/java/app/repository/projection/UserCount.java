@@ -0,0 +1,8 @@
+package app.repository.projection;
+
+public interface UserCount {
+
+    Long getUserId();
+
+    Long getCount();
+}
@@ -0,0 +1,68 @@
+package app.service.Impl;
+
+
+import app.repository.TaskArchiveRepository;
+import app.service.TaskArchiveService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Moves Completed tasks untouched for completed-age-days from tasks to the id-partitioned tasks_archive, one
+ * bounded batch per transaction, so the hot table and its indexes hold only live work. Archived tasks are still
+ * served by id; stats keep counting them and the change feed does not report them as deleted.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TaskArchiveServiceImpl implements TaskArchiveService {
+
+    @Value("${task.archive.completed-age-days}")
+    private Integer completedAgeDays;
+
+    @Value("${task.archive.batch-size}")
+    private Integer batchSize;
+
+    @Value("${task.archive.max-batches}")
+    private Integer maxBatches;
+
+    private final TaskArchiveRepository taskArchiveRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+
+    @PostConstruct
+    void init() {
+        transaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    @Scheduled(cron = "${task.archive.cron}")
+    public int archive() {
+        Instant completedBefore = Instant.now().minus(Duration.ofDays(completedAgeDays));
+        transaction.executeWithoutResult(status -> taskArchiveRepository.ensurePartitions());
+
+        // Короткие транзакции: блокировки строк и объём WAL на один шаг ограничены batch-size
+        int archived = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            Integer moved = transaction.execute(status -> {
+                taskArchiveRepository.markArchiving();
+                return taskArchiveRepository.archiveCompleted(completedBefore, batchSize);
+            });
+            archived += moved;
+            if (moved < batchSize) {
+                break;
+            }
+        }
+        log.info("Archived {} tasks completed before {}", archived, completedBefore);
+        return archived;
+    }
+}
@@ -2,34 +2,127 @@ package app.service.Impl;
 
 
 import app.controller.advice.annotation.CustomExceptionHandler;
+import app.dto.BatchResultDto;
+import app.dto.BatchUpdateTaskDto;
 import app.dto.CreateTaskDto;
+import app.dto.TaskChangesDto;
 import app.dto.TaskDto;
+import app.dto.TaskSliceDto;
 import app.dto.UpdateTaskDto;
 import app.entity.Status;
 import app.entity.Task;
+import app.entity.TaskArchive;
+import app.entity.TaskOutbox;
+import app.entity.TaskOutboxType;
+import app.exception.BadRequestException;
+import app.exception.ConflictException;
+import app.exception.GoneException;
 import app.exception.NotFoundException;
+import app.exception.TooManyRequestsException;
 import app.mapper.task.TaskMapper;
+import app.pagination.ChangeToken;
+import app.pagination.KeysetCursor;
+import app.repository.TaskArchiveRepository;
+import app.repository.TaskOutboxRepository;
 import app.repository.TaskRepository;
+import app.service.TaskExport;
 import app.service.TaskService;
+import app.service.TaskStatsDelta;
+import app.service.TaskStatsService;
+import app.repository.projection.TaskChangeRow;
+import app.repository.projection.TaskKeyView;
+import app.repository.projection.TaskSearchResult;
+import app.repository.projection.TaskUpdateResult;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.domain.Page;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 @CustomExceptionHandler
 public class TaskServiceImpl implements TaskService {
 
+    public static final String TASKS_CACHE = "tasks";
+
     @Value("${task.limit-downloads}")
     private Integer limit;
 
+    @Value("${task.batch-limit}")
+    private Integer batchLimit;
+
+    @Value("${task.max-slice-size}")
+    private Integer maxSliceSize;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private Integer jdbcBatchSize;
+
+    @Value("${spring.kafka.producer.topics[0].name}")
+    private String statusTopic;
+
+    @Value("${spring.kafka.producer.topics[1].name}")
+    private String changesTopic;
+
+    @Value("${task.changes.max-limit}")
+    private Integer changesMaxLimit;
+
+    @Value("${task.changes.tombstone-retention-days}")
+    private Integer tombstoneRetentionDays;
+
     private final TaskRepository taskRepository;
+    private final TaskArchiveRepository taskArchiveRepository;
+    private final TaskOutboxRepository taskOutboxRepository;
     private final TaskMapper taskMapper;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager transactionManager;
+    private final CacheManager cacheManager;
+    private final TaskStatsService taskStatsService;
+
+    private Semaphore exportPermits;
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    void init() {
+        exportPermits = new Semaphore(limit);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
 
     @Override
     @Transactional
@@ -37,46 +130,393 @@ public class TaskServiceImpl implements TaskService {
         Task task = taskMapper.toEntity(dto);
         task.setStatus(Status.Active);
         task = taskRepository.save(task);
+        taskOutboxRepository.save(changed(task.getId()));
+        taskStatsService.apply(new TaskStatsDelta().added(task.getUserId(), task.getStatus()));
         return taskMapper.toDto(task);
 
     }
 
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = TASKS_CACHE, key = "#id")
     public TaskDto getById(Long id) {
-        Task task = taskRepository.findById(id).orElseThrow(() -> new NotFoundException(Task.class, id));
-        return taskMapper.toDto(task);
+        // Промах по горячей таблице проверяется в архиве: одна секция по id
+        return taskRepository.findDtoById(id)
+                .or(() -> taskArchiveRepository.findDtoById(id))
+                .orElseThrow(() -> new NotFoundException(Task.class, id));
     }
 
     @Override
     @Transactional
+    @CachePut(cacheNames = TASKS_CACHE, key = "#id")
     public TaskDto update(Long id, UpdateTaskDto dto) {
-        Task task = taskRepository.findById(id).orElseThrow(() -> new NotFoundException(Task.class, id));
-        Task taskFromDto = taskMapper.toEntity(id, dto);
+        TaskUpdateResult result = taskRepository.updateNonNullFields(
+                id,
+                dto.title(),
+                dto.description(),
+                dto.status() == null ? null : dto.status().name(),
+                dto.userId(),
+                dto.version()
+        ).orElseThrow(() -> taskRepository.existsById(id)
+                ? new ConflictException("Task with id " + id + " was modified, expected version " + dto.version())
+                : new NotFoundException(Task.class, id));
+        TaskDto task = taskMapper.toDto(result);
+        taskOutboxRepository.saveAll(List.of(statusChanged(task.id(), task.status()), changed(task.id())));
+        taskStatsService.apply(new TaskStatsDelta()
+                .moved(result.getPreviousUserId(), toStatus(result.getPreviousStatus()), task.userId(), task.status()));
 
-        taskMapper.update(task, taskFromDto);
-        taskRepository.save(task);
-
-        return taskMapper.toDto(task);
+        return task;
     }
 
     @Override
     @Transactional
+    @CacheEvict(cacheNames = TASKS_CACHE, key = "#id")
     public void remove(Long id) {
-        taskRepository.findById(id).ifPresentOrElse(
-                taskRepository::delete,
-                () -> {
-                    throw new NotFoundException(Task.class, id);
+        TaskKeyView removed = taskRepository.deleteTaskById(id)
+                .or(() -> taskArchiveRepository.deleteTaskById(id))
+                .orElseThrow(() -> new NotFoundException(Task.class, id));
+        taskOutboxRepository.save(changed(id));
+        taskStatsService.apply(new TaskStatsDelta().removed(removed.getUserId(), toStatus(removed.getStatus())));
+    }
+
+    @Override
+    @Transactional
+    public List<BatchResultDto> createAll(List<CreateTaskDto> dtos) {
+        checkBatchSize(dtos.size());
+        List<BatchResultDto> results = new ArrayList<>(dtos.size());
+        TaskStatsDelta stats = new TaskStatsDelta();
+
+        for (int i = 0; i < dtos.size(); i++) {
+            CreateTaskDto dto = dtos.get(i);
+            if (dto == null) {
+                results.add(BatchResultDto.failure(i, null, "Task is empty"));
+                continue;
+            }
+            Task task = taskMapper.toEntity(dto);
+            task.setStatus(Status.Active);
+            entityManager.persist(task);
+            entityManager.persist(changed(task.getId()));
+            stats.added(task.getUserId(), task.getStatus());
+            results.add(BatchResultDto.success(i, taskMapper.toDto(task)));
+
+            if ((i + 1) % jdbcBatchSize == 0) {
+                flushAndClear();
+            }
+        }
+        flushAndClear();
+        taskStatsService.apply(stats);
+        return results;
+    }
+
+    @Override
+    @Transactional
+    public List<BatchResultDto> updateAll(List<BatchUpdateTaskDto> dtos) {
+        checkBatchSize(dtos.size());
+        List<BatchResultDto> results = new ArrayList<>(dtos.size());
+        List<Long> updatedIds = new ArrayList<>(dtos.size());
+        TaskStatsDelta stats = new TaskStatsDelta();
+
+        for (int from = 0; from < dtos.size(); from += jdbcBatchSize) {
+            List<BatchUpdateTaskDto> chunk = dtos.subList(from, Math.min(from + jdbcBatchSize, dtos.size()));
+            Map<Long, Task> tasks = new HashMap<>();
+            Map<Integer, Task> updated = new HashMap<>();
+            taskRepository.findAllById(chunk.stream().filter(dto -> dto != null && dto.id() != null).map(BatchUpdateTaskDto::id).toList())
+                    .forEach(task -> tasks.put(task.getId(), task));
+
+            for (int i = 0; i < chunk.size(); i++) {
+                int index = from + i;
+                BatchUpdateTaskDto dto = chunk.get(i);
+                if (dto == null || dto.id() == null) {
+                    results.add(BatchResultDto.failure(index, null, "Task id is required"));
+                    continue;
+                }
+                Task task = tasks.get(dto.id());
+                if (task == null) {
+                    results.add(BatchResultDto.failure(index, dto.id(), new NotFoundException(Task.class, dto.id()).getMessage()));
+                    continue;
                 }
-        );
+                if (dto.version() != null && !dto.version().equals(task.getVersion())) {
+                    results.add(BatchResultDto.failure(index, dto.id(),
+                            "Task with id " + dto.id() + " has version " + task.getVersion() + ", expected " + dto.version()));
+                    continue;
+                }
+                Long previousUserId = task.getUserId();
+                Status previousStatus = task.getStatus();
+                taskMapper.update(task, taskMapper.toEntity(dto));
+                stats.moved(previousUserId, previousStatus, task.getUserId(), task.getStatus());
+                entityManager.persist(statusChanged(task.getId(), task.getStatus()));
+                entityManager.persist(changed(task.getId()));
+                updatedIds.add(task.getId());
+                updated.put(results.size(), task);
+                results.add(null);
+            }
+            // Новая версия появляется в сущности только после flush
+            flushAndClear();
+            updated.forEach((position, task) -> results.set(position, BatchResultDto.success(position, taskMapper.toDto(task))));
+        }
+        taskStatsService.apply(stats);
+        evictAfterCommit(updatedIds);
+        return results;
+    }
+
+    @Override
+    @Transactional
+    public List<BatchResultDto> removeAll(List<Long> ids) {
+        checkBatchSize(ids.size());
+        List<BatchResultDto> results = new ArrayList<>(ids.size());
+        List<Long> removedIds = new ArrayList<>(ids.size());
+        TaskStatsDelta stats = new TaskStatsDelta();
+
+        for (int from = 0; from < ids.size(); from += jdbcBatchSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + jdbcBatchSize, ids.size()));
+            List<Long> existing = new ArrayList<>(chunk.size());
+            for (Task task : taskRepository.findAllById(chunk.stream().filter(id -> id != null).toList())) {
+                existing.add(task.getId());
+                stats.removed(task.getUserId(), task.getStatus());
+            }
+            List<Long> archived = new ArrayList<>();
+            for (TaskArchive task : taskArchiveRepository.findAllById(chunk.stream().filter(id -> id != null && !existing.contains(id)).toList())) {
+                archived.add(task.getId());
+                stats.removed(task.getUserId(), task.getStatus());
+            }
+            taskRepository.deleteAllByIdInBatch(existing);
+            if (!archived.isEmpty()) {
+                taskArchiveRepository.deleteAllByIds(archived);
+                existing.addAll(archived);
+            }
+            taskOutboxRepository.saveAll(existing.stream().map(this::changed).toList());
+            entityManager.flush();
+            entityManager.clear();
+            removedIds.addAll(existing);
+
+            for (int i = 0; i < chunk.size(); i++) {
+                Long id = chunk.get(i);
+                if (id == null) {
+                    results.add(BatchResultDto.failure(from + i, null, "Task id is required"));
+                } else if (existing.contains(id)) {
+                    results.add(new BatchResultDto(from + i, id, null, null));
+                } else {
+                    results.add(BatchResultDto.failure(from + i, id, new NotFoundException(Task.class, id).getMessage()));
+                }
+            }
+        }
+        taskStatsService.apply(stats);
+        evictAfterCommit(removedIds);
+        return results;
+    }
+
+    private TaskOutbox statusChanged(Long taskId, Status status) {
+        return TaskOutbox.builder()
+                .type(TaskOutboxType.STATUS)
+                .topic(statusTopic)
+                .taskId(taskId)
+                .status(status)
+                .createdAt(Instant.now())
+                .build();
+    }
+
+    // Снимок задачи не хранится: relay читает актуальное состояние при отправке, отсутствующая задача уходит как tombstone
+    private TaskOutbox changed(Long taskId) {
+        return TaskOutbox.builder()
+                .type(TaskOutboxType.CHANGE)
+                .topic(changesTopic)
+                .taskId(taskId)
+                .createdAt(Instant.now())
+                .build();
+    }
+
+    private static Status toStatus(String status) {
+        return status == null ? null : Status.valueOf(status);
+    }
+
+    private void evictAfterCommit(List<Long> ids) {
+        Cache cache = cacheManager.getCache(TASKS_CACHE);
+        if (cache == null || ids.isEmpty()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                ids.forEach(cache::evict);
+            }
+        });
+    }
+
+    private void checkBatchSize(int size) {
+        if (size > batchLimit) {
+            throw new BadRequestException("Batch size " + size + " exceeds limit " + batchLimit);
+        }
+    }
+
+    // Верхняя граница заодно защищает size + 1 от переполнения
+    private void checkSliceSize(int size) {
+        if (size < 1 || size > maxSliceSize) {
+            throw new BadRequestException("Slice size must be between 1 and " + maxSliceSize + ": " + size);
+        }
+    }
+
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<TaskDto> getList(Long userId, Status status, PageRequest pageRequest) {
+        List<TaskDto> tasks;
+        if (userId != null && status != null) {
+            tasks = taskRepository.findByUserIdAndStatusOrderByIdAsc(userId, status, pageRequest);
+        } else if (userId != null) {
+            tasks = taskRepository.findByUserIdOrderByIdAsc(userId, pageRequest);
+        } else if (status != null) {
+            tasks = taskRepository.findByStatusOrderByIdAsc(status, pageRequest);
+        } else {
+            tasks = taskRepository.findAllByOrderByIdAsc(pageRequest);
+        }
+        return tasks;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TaskSliceDto getSlice(Long userId, Status status, String cursor, int size) {
+        checkSliceSize(size);
+        long afterId = KeysetCursor.decode(cursor);
+        Limit limit = Limit.of(size + 1);
+
+        // Для каждого сочетания фильтров свой запрос, чтобы план всегда шёл по составному индексу (..., id)
+        List<TaskDto> tasks;
+        if (userId != null && status != null) {
+            tasks = taskRepository.findByUserIdAndStatusAndIdGreaterThanOrderByIdAsc(userId, status, afterId, limit);
+        } else if (userId != null) {
+            tasks = taskRepository.findByUserIdAndIdGreaterThanOrderByIdAsc(userId, afterId, limit);
+        } else if (status != null) {
+            tasks = taskRepository.findByStatusAndIdGreaterThanOrderByIdAsc(status, afterId, limit);
+        } else {
+            tasks = taskRepository.findByIdGreaterThanOrderByIdAsc(afterId, limit);
+        }
+
+        boolean hasNext = tasks.size() > size;
+        if (hasNext) {
+            tasks = tasks.subList(0, size);
+        }
+        String nextCursor = hasNext ? KeysetCursor.encode(tasks.get(tasks.size() - 1).id()) : null;
+        return new TaskSliceDto(tasks, nextCursor);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TaskSliceDto search(String query, String cursor, int size) {
+        if (query == null || query.isBlank()) {
+            throw new BadRequestException("Search query must not be blank");
+        }
+        checkSliceSize(size);
+        KeysetCursor.RankedPosition after = KeysetCursor.decodeRanked(cursor);
+        List<TaskSearchResult> results = after == null
+                ? taskRepository.search(query, null, 0L, size + 1)
+                : taskRepository.search(query, after.rank(), after.id(), size + 1);
+
+        boolean hasNext = results.size() > size;
+        if (hasNext) {
+            results = results.subList(0, size);
+        }
+        TaskSearchResult last = hasNext ? results.get(results.size() - 1) : null;
+        String nextCursor = last == null ? null : KeysetCursor.encode(last.getRank(), last.getId());
+        return new TaskSliceDto(results.stream().map(taskMapper::toDto).toList(), nextCursor);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TaskChangesDto getChanges(String since, int limit) {
+        if (limit < 1 || limit > changesMaxLimit) {
+            throw new BadRequestException("Changes limit must be between 1 and " + changesMaxLimit + ": " + limit);
+        }
+        ChangeToken from = ChangeToken.decode(since);
+        // Граница читается до данных: всё ниже неё к моменту выборки закоммичено и видно
+        long watermark = taskRepository.currentChangeWatermark();
+        long issuedAt = System.currentTimeMillis();
+        if (from == null) {
+            from = new ChangeToken(0L, 0L, issuedAt);
+        } else if (from.issuedAtMillis() < issuedAt - Duration.ofDays(tombstoneRetentionDays).toMillis()) {
+            throw new GoneException("Change token is older than " + tombstoneRetentionDays + " days, full resync required");
+        }
+
+        List<TaskChangeRow> rows = taskRepository.findChanges(from.txid(), from.afterId(), watermark, limit + 1);
+        boolean hasMore = rows.size() > limit;
+        if (hasMore) {
+            rows = rows.subList(0, limit);
+        }
+        List<TaskDto> changed = new ArrayList<>(rows.size());
+        List<Long> deleted = new ArrayList<>();
+        for (TaskChangeRow row : rows) {
+            if (Boolean.TRUE.equals(row.getDeleted())) {
+                deleted.add(row.getId());
+            } else {
+                changed.add(taskMapper.toDto(row));
+            }
+        }
+
+        // Продолжение сохраняет время исходного токена, иначе долгая догрузка обходила бы проверку срока хранения удалений
+        ChangeToken next;
+        if (hasMore) {
+            TaskChangeRow last = rows.get(rows.size() - 1);
+            next = new ChangeToken(last.getChangeTxid(), last.getId(), from.issuedAtMillis());
+        } else if (watermark > from.txid()) {
+            next = new ChangeToken(watermark, 0L, issuedAt);
+        } else {
+            next = new ChangeToken(from.txid(), from.afterId(), issuedAt);
+        }
+        return new TaskChangesDto(changed, deleted, next.encode(), hasMore);
     }
 
     @Override
     @Transactional
-    public List<TaskDto> getList(PageRequest pageRequest) {
-        List<Task> tasks = taskRepository.findAll(pageRequest).toList();
-        return taskMapper.toDto(tasks);
+    @Scheduled(cron = "${task.changes.tombstone-purge-cron}")
+    public void purgeTombstones() {
+        int purged = taskRepository.purgeTombstones(Instant.now().minus(Duration.ofDays(tombstoneRetentionDays)));
+        log.info("Purged {} task tombstones older than {} days", purged, tombstoneRetentionDays);
     }
 
+    @Override
+    public TaskExport export() {
+        if (!exportPermits.tryAcquire()) {
+            throw new TooManyRequestsException("Too many concurrent exports, limit is " + limit);
+        }
+        AtomicBoolean released = new AtomicBoolean();
+        return new TaskExport() {
+            @Override
+            public void writeTo(OutputStream out) {
+                readOnlyTransaction.executeWithoutResult(status -> writeNdjson(out));
+            }
+
+            @Override
+            public void close() {
+                if (released.compareAndSet(false, true)) {
+                    exportPermits.release();
+                }
+            }
+        };
+    }
+
+    private void writeNdjson(OutputStream out) {
+        ObjectWriter writer = objectMapper.writerFor(TaskDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("\n");
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+             SequenceWriter sequence = writer.writeValues(generator);
+             Stream<TaskDto> tasks = taskRepository.streamAllOrderById()) {
+            boolean empty = true;
+            Iterator<TaskDto> iterator = tasks.iterator();
+            while (iterator.hasNext()) {
+                sequence.write(iterator.next());
+                empty = false;
+            }
+            if (!empty) {
+                generator.writeRaw('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 
 }
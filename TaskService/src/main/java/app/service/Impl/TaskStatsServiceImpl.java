@@ -0,0 +1,61 @@
+package app.service.Impl;
+
+
+import app.dto.TaskStatsDto;
+import app.entity.Status;
+import app.repository.TaskStatRepository;
+import app.repository.projection.StatusCount;
+import app.repository.projection.UserCount;
+import app.service.TaskStatsDelta;
+import app.service.TaskStatsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TaskStatsServiceImpl implements TaskStatsService {
+
+    private final TaskStatRepository taskStatRepository;
+
+    @Override
+    @Transactional(readOnly = true)
+    public TaskStatsDto getStats() {
+        Map<Status, Long> byStatus = new EnumMap<>(Status.class);
+        for (StatusCount count : taskStatRepository.countByStatus()) {
+            byStatus.put(count.getStatus(), count.getCount());
+        }
+        Map<Long, Long> byUser = new LinkedHashMap<>();
+        for (UserCount count : taskStatRepository.countByUser()) {
+            byUser.put(count.getUserId(), count.getCount());
+        }
+        return new TaskStatsDto(byStatus, byUser);
+    }
+
+    // Вызывается из транзакции, изменившей задачи: счётчики коммитятся вместе с данными
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void apply(TaskStatsDelta delta) {
+        delta.forEach((userId, status, value) ->
+                taskStatRepository.increment(userId, status == null ? null : status.name(), value));
+    }
+
+    @Override
+    @Transactional
+    @Scheduled(cron = "${task.stats.reconcile-cron}")
+    public void reconcile() {
+        // Блокировка не даёт параллельным upsert'ам попасть между удалением и пересчётом
+        taskStatRepository.lock();
+        taskStatRepository.deleteAllInBatch();
+        taskStatRepository.rebuild();
+        log.info("Task stats reconciled");
+    }
+}
@@ -0,0 +1,6 @@
+package app.service;
+
+public interface TaskArchiveService {
+
+    int archive();
+}
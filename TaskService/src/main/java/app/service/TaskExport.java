@@ -0,0 +1,13 @@
+package app.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface TaskExport extends AutoCloseable {
+
+    void writeTo(OutputStream out) throws IOException;
+
+    // Возвращает разрешение на выгрузку; вызывается при любом завершении запроса, повторный вызов ничего не делает
+    @Override
+    void close();
+}
@@ -1,8 +1,13 @@
 package app.service;
 
+import app.dto.BatchResultDto;
+import app.dto.BatchUpdateTaskDto;
 import app.dto.CreateTaskDto;
+import app.dto.TaskChangesDto;
 import app.dto.TaskDto;
+import app.dto.TaskSliceDto;
 import app.dto.UpdateTaskDto;
+import app.entity.Status;
 import org.springframework.data.domain.PageRequest;
 
 import java.util.List;
@@ -17,5 +22,21 @@ public interface TaskService {
 
     void remove(Long id);
 
-    List<TaskDto> getList(PageRequest pageRequest);
+    List<BatchResultDto> createAll(List<CreateTaskDto> dtos);
+
+    List<BatchResultDto> updateAll(List<BatchUpdateTaskDto> dtos);
+
+    List<BatchResultDto> removeAll(List<Long> ids);
+
+    List<TaskDto> getList(Long userId, Status status, PageRequest pageRequest);
+
+    TaskSliceDto getSlice(Long userId, Status status, String cursor, int size);
+
+    TaskSliceDto search(String query, String cursor, int size);
+
+    TaskChangesDto getChanges(String since, int limit);
+
+    void purgeTombstones();
+
+    TaskExport export();
 }
@@ -0,0 +1,51 @@
+package app.service;
+
+import app.entity.Status;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+// Накапливает изменения счётчиков в рамках одной операции, чтобы применить их одним upsert на пару (userId, status)
+public class TaskStatsDelta {
+
+    private static final Comparator<Key> KEY_ORDER = Comparator
+            .comparing(Key::userId, Comparator.nullsFirst(Comparator.<Long>naturalOrder()))
+            .thenComparing(Key::status, Comparator.nullsFirst(Comparator.<Status>naturalOrder()));
+
+    private final Map<Key, Long> deltas = new HashMap<>();
+
+    public TaskStatsDelta added(Long userId, Status status) {
+        deltas.merge(new Key(userId, status), 1L, Long::sum);
+        return this;
+    }
+
+    public TaskStatsDelta removed(Long userId, Status status) {
+        deltas.merge(new Key(userId, status), -1L, Long::sum);
+        return this;
+    }
+
+    public TaskStatsDelta moved(Long fromUserId, Status fromStatus, Long toUserId, Status toStatus) {
+        if (!Objects.equals(fromUserId, toUserId) || fromStatus != toStatus) {
+            removed(fromUserId, fromStatus);
+            added(toUserId, toStatus);
+        }
+        return this;
+    }
+
+    public void forEach(Consumer consumer) {
+        // Фиксированный порядок upsert'ов исключает взаимные блокировки параллельных транзакций
+        deltas.entrySet().stream()
+                .filter(entry -> entry.getValue() != 0)
+                .sorted(Map.Entry.comparingByKey(KEY_ORDER))
+                .forEach(entry -> consumer.accept(entry.getKey().userId(), entry.getKey().status(), entry.getValue()));
+    }
+
+    @FunctionalInterface
+    public interface Consumer {
+        void accept(Long userId, Status status, long delta);
+    }
+
+    private record Key(Long userId, Status status) {}
+}
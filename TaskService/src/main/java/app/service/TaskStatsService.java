@@ -0,0 +1,12 @@
+package app.service;
+
+import app.dto.TaskStatsDto;
+
+public interface TaskStatsService {
+
+    TaskStatsDto getStats();
+
+    void apply(TaskStatsDelta delta);
+
+    void reconcile();
+}
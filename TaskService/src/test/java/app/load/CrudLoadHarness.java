@@ -0,0 +1,143 @@
+package app.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Load harness for the CRUD endpoints of a running TaskService; not part of the regular test run.
+ * Start the service once with the default profile and once with {@code --spring.profiles.active=virtual},
+ * then run against each instance and compare the printed throughput and p99:
+ * {@code mvn test -Dtest=CrudLoadHarness -Dload.label=virtual [-Dload.baseUrl=http://localhost:8082]
+ * [-Dload.concurrency=400] [-Dload.durationSec=30] [-Dload.warmupSec=5]}
+ * <p>
+ * To compare two builds of the same endpoint (before/after a change), start each against its own empty database and
+ * run with {@code -Dload.concurrency=1} so the figures show per-request latency rather than CPU contention.
+ * Run twice per instance and keep the second result: the first run after startup still includes JIT warmup.
+ */
+class CrudLoadHarness {
+
+    private static final String BASE_URL = System.getProperty("load.baseUrl", "http://localhost:8082");
+    private static final String LABEL = System.getProperty("load.label", "unnamed");
+    // Больше 200 клиентов, чтобы упереться в пул потоков Tomcat в платформенном режиме
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 400);
+    private static final int DURATION_SEC = Integer.getInteger("load.durationSec", 30);
+    private static final int WARMUP_SEC = Integer.getInteger("load.warmupSec", 5);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    @Test
+    void run() throws InterruptedException {
+        runFor(WARMUP_SEC);
+        Map<Operation, LatencyRecorder> results = runFor(DURATION_SEC);
+
+        System.out.printf("%s: %d clients, %d s against %s%n", LABEL, CONCURRENCY, DURATION_SEC, BASE_URL);
+        long total = 0;
+        for (Map.Entry<Operation, LatencyRecorder> entry : results.entrySet()) {
+            LatencyRecorder recorder = entry.getValue();
+            total += recorder.count();
+            System.out.printf("%-8s %9.0f req/sec   p50 %8.2f ms   p99 %8.2f ms   errors %d%n",
+                    entry.getKey(), recorder.count() / (double) DURATION_SEC,
+                    recorder.percentileMillis(0.50), recorder.percentileMillis(0.99), recorder.errors());
+        }
+        System.out.printf("%-8s %9.0f req/sec%n", "total", total / (double) DURATION_SEC);
+    }
+
+    private Map<Operation, LatencyRecorder> runFor(int seconds) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        List<Map<Operation, LatencyRecorder>> perClient = new ArrayList<>(CONCURRENCY);
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CONCURRENCY; i++) {
+                Map<Operation, LatencyRecorder> recorders = Operation.recorders();
+                perClient.add(recorders);
+                clients.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        crudCycle(recorders);
+                    }
+                });
+            }
+        }
+
+        Map<Operation, LatencyRecorder> merged = Operation.recorders();
+        perClient.forEach(recorders -> recorders.forEach((operation, recorder) -> merged.get(operation).merge(recorder)));
+        return merged;
+    }
+
+    private void crudCycle(Map<Operation, LatencyRecorder> recorders) {
+        long userId = ThreadLocalRandom.current().nextLong(1, 1000);
+        HttpResponse<String> created = call(recorders.get(Operation.CREATE), "POST", "/tasks",
+                "{\"title\":\"load\",\"description\":\"load test\",\"userId\":" + userId + "}");
+        if (created == null) {
+            return;
+        }
+        long id = readId(created.body());
+        call(recorders.get(Operation.GET), "GET", "/tasks/" + id, null);
+        call(recorders.get(Operation.UPDATE), "PUT", "/tasks/" + id, "{\"status\":\"Completed\"}");
+        call(recorders.get(Operation.GET), "GET", "/tasks/" + id, null);
+        call(recorders.get(Operation.DELETE), "DELETE", "/tasks/" + id, null);
+    }
+
+    private HttpResponse<String> call(LatencyRecorder recorder, String method, String path, String body) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(BASE_URL + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() >= 400) {
+                recorder.error();
+                return null;
+            }
+            recorder.record(System.nanoTime() - start);
+            return response;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            recorder.error();
+            return null;
+        } catch (Exception e) {
+            recorder.error();
+            return null;
+        }
+    }
+
+    private long readId(String body) {
+        try {
+            JsonNode node = objectMapper.readTree(body);
+            return node.get("id").asLong();
+        } catch (Exception e) {
+            throw new IllegalStateException("Unexpected create response: " + body, e);
+        }
+    }
+
+    private enum Operation {
+        CREATE, GET, UPDATE, DELETE;
+
+        static Map<Operation, LatencyRecorder> recorders() {
+            Map<Operation, LatencyRecorder> recorders = new EnumMap<>(Operation.class);
+            for (Operation operation : values()) {
+                recorders.put(operation, new LatencyRecorder());
+            }
+            return recorders;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package app.load;
+
+import java.util.Arrays;
+
+// Пишется одним клиентом, сливается после завершения всех клиентов, поэтому без синхронизации
+final class LatencyRecorder {
+    private long[] latencies = new long[1024];
+    private int count;
+    private long errors;
+
+    void record(long nanos) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = nanos;
+    }
+
+    void error() {
+        errors++;
+    }
+
+    void merge(LatencyRecorder other) {
+        for (int i = 0; i < other.count; i++) {
+            record(other.latencies[i]);
+        }
+        errors += other.errors;
+    }
+
+    int count() {
+        return count;
+    }
+
+    long errors() {
+        return errors;
+    }
+
+    double percentileMillis(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        return sorted[Math.min(count - 1, (int) (count * percentile))] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,127 @@
+package app.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Latency of {@code GET /tasks/search} of a running TaskService over a table seeded with
+ * {@code src/test/resources/load/seed-search-tasks.sql} (several million rows); not part of the regular test run.
+ * Queries of different selectivity are measured separately, {@code NEXT_PAGE} follows the cursor of a common query:
+ * {@code mvn test -Dtest=SearchLoadHarness [-Dload.baseUrl=http://localhost:8082] [-Dload.concurrency=16]
+ * [-Dload.durationSec=30] [-Dload.warmupSec=5] [-Dload.pageSize=20]}
+ */
+class SearchLoadHarness {
+
+    private static final String BASE_URL = System.getProperty("load.baseUrl", "http://localhost:8082");
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 16);
+    private static final int DURATION_SEC = Integer.getInteger("load.durationSec", 30);
+    private static final int WARMUP_SEC = Integer.getInteger("load.warmupSec", 5);
+    private static final int PAGE_SIZE = Integer.getInteger("load.pageSize", 20);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    @Test
+    void run() throws InterruptedException {
+        runFor(WARMUP_SEC);
+        Map<QueryClass, LatencyRecorder> results = runFor(DURATION_SEC);
+
+        System.out.printf("%d clients, %d s, page %d against %s%n", CONCURRENCY, DURATION_SEC, PAGE_SIZE, BASE_URL);
+        for (Map.Entry<QueryClass, LatencyRecorder> entry : results.entrySet()) {
+            LatencyRecorder recorder = entry.getValue();
+            System.out.printf("%-10s %9.0f req/sec   p50 %8.2f ms   p99 %8.2f ms   errors %d%n",
+                    entry.getKey(), recorder.count() / (double) DURATION_SEC,
+                    recorder.percentileMillis(0.50), recorder.percentileMillis(0.99), recorder.errors());
+        }
+    }
+
+    private Map<QueryClass, LatencyRecorder> runFor(int seconds) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        List<Map<QueryClass, LatencyRecorder>> perClient = new ArrayList<>(CONCURRENCY);
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CONCURRENCY; i++) {
+                Map<QueryClass, LatencyRecorder> recorders = QueryClass.recorders();
+                perClient.add(recorders);
+                clients.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        searchCycle(recorders);
+                    }
+                });
+            }
+        }
+
+        Map<QueryClass, LatencyRecorder> merged = QueryClass.recorders();
+        perClient.forEach(recorders -> recorders.forEach((queryClass, recorder) -> merged.get(queryClass).merge(recorder)));
+        return merged;
+    }
+
+    private void searchCycle(Map<QueryClass, LatencyRecorder> recorders) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        // Номер тикета: десятки совпадений на 5 млн строк
+        search(recorders.get(QueryClass.RARE), String.valueOf(random.nextInt(100000)), null);
+        search(recorders.get(QueryClass.MEDIUM), "password access", null);
+        search(recorders.get(QueryClass.PHRASE), "\"deploy release\"", null);
+        JsonNode first = search(recorders.get(QueryClass.COMMON), "report", null);
+        if (first != null && first.hasNonNull("nextCursor")) {
+            search(recorders.get(QueryClass.NEXT_PAGE), "report", first.get("nextCursor").asText());
+        }
+    }
+
+    private JsonNode search(LatencyRecorder recorder, String query, String cursor) {
+        String uri = BASE_URL + "/tasks/search?size=" + PAGE_SIZE + "&q=" + URLEncoder.encode(query, StandardCharsets.UTF_8)
+                + (cursor == null ? "" : "&cursor=" + cursor);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(uri))
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() >= 400) {
+                recorder.error();
+                return null;
+            }
+            recorder.record(System.nanoTime() - start);
+            return objectMapper.readTree(response.body());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            recorder.error();
+            return null;
+        } catch (Exception e) {
+            recorder.error();
+            return null;
+        }
+    }
+
+    private enum QueryClass {
+        RARE, MEDIUM, PHRASE, COMMON, NEXT_PAGE;
+
+        static Map<QueryClass, LatencyRecorder> recorders() {
+            Map<QueryClass, LatencyRecorder> recorders = new EnumMap<>(QueryClass.class);
+            for (QueryClass queryClass : values()) {
+                recorders.put(queryClass, new LatencyRecorder());
+            }
+            return recorders;
+        }
+    }
+}
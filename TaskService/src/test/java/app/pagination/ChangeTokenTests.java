@@ -0,0 +1,29 @@
+package app.pagination;
+
+import app.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ChangeTokenTests {
+
+    @Test
+    void roundTrip() {
+        ChangeToken token = new ChangeToken(4_294_967_396L, 42L, 1_700_000_000_000L);
+        assertEquals(token, ChangeToken.decode(token.encode()));
+    }
+
+    @Test
+    void missingTokenStartsFromTheBeginning() {
+        assertNull(ChangeToken.decode(null));
+        assertNull(ChangeToken.decode(""));
+    }
+
+    @Test
+    void rejectsGarbage() {
+        assertThrows(BadRequestException.class, () -> ChangeToken.decode("not a token!"));
+        assertThrows(BadRequestException.class, () -> ChangeToken.decode(KeysetCursor.encode(42L)));
+    }
+}
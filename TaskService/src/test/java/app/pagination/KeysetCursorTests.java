@@ -0,0 +1,38 @@
+package app.pagination;
+
+import app.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class KeysetCursorTests {
+
+    @Test
+    void roundTrip() {
+        assertEquals(42L, KeysetCursor.decode(KeysetCursor.encode(42L)));
+        assertEquals(Long.MAX_VALUE, KeysetCursor.decode(KeysetCursor.encode(Long.MAX_VALUE)));
+    }
+
+    @Test
+    void rankedRoundTrip() {
+        KeysetCursor.RankedPosition position = KeysetCursor.decodeRanked(KeysetCursor.encode(0.0607927f, 42L));
+        assertEquals(0.0607927f, position.rank());
+        assertEquals(42L, position.id());
+        assertNull(KeysetCursor.decodeRanked(null));
+        assertThrows(BadRequestException.class, () -> KeysetCursor.decodeRanked(KeysetCursor.encode(42L)));
+    }
+
+    @Test
+    void missingCursorStartsFromTheBeginning() {
+        assertEquals(0L, KeysetCursor.decode(null));
+        assertEquals(0L, KeysetCursor.decode(""));
+    }
+
+    @Test
+    void rejectsGarbage() {
+        assertThrows(BadRequestException.class, () -> KeysetCursor.decode("not a cursor!"));
+        assertThrows(BadRequestException.class, () -> KeysetCursor.decode("AAAA"));
+    }
+}
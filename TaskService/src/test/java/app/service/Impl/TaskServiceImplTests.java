@@ -0,0 +1,199 @@
+package app.service.Impl;
+
+import app.dto.BatchResultDto;
+import app.dto.BatchUpdateTaskDto;
+import app.dto.CreateTaskDto;
+import app.dto.UpdateTaskDto;
+import app.entity.Status;
+import app.entity.Task;
+import app.entity.TaskOutbox;
+import app.entity.TaskOutboxType;
+import app.exception.BadRequestException;
+import app.mapper.task.TaskMapperImpl;
+import app.repository.TaskArchiveRepository;
+import app.repository.TaskOutboxRepository;
+import app.repository.TaskRepository;
+import app.repository.projection.TaskKeyView;
+import app.repository.projection.TaskUpdateResult;
+import app.service.TaskStatsDelta;
+import app.service.TaskStatsService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TaskServiceImplTests {
+
+    private final TaskRepository taskRepository = mock(TaskRepository.class);
+    private final EntityManager entityManager = mock(EntityManager.class);
+    private final TaskStatsService taskStatsService = mock(TaskStatsService.class);
+    private TaskServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        service = new TaskServiceImpl(taskRepository, mock(TaskArchiveRepository.class), mock(TaskOutboxRepository.class),
+                new TaskMapperImpl(), entityManager, new ObjectMapper(), mock(PlatformTransactionManager.class),
+                mock(CacheManager.class), taskStatsService);
+        ReflectionTestUtils.setField(service, "batchLimit", 100);
+        ReflectionTestUtils.setField(service, "jdbcBatchSize", 2);
+        ReflectionTestUtils.setField(service, "statusTopic", "task-status");
+        ReflectionTestUtils.setField(service, "changesTopic", "task-changes");
+    }
+
+    @Test
+    void batchUpdateKeepsFieldsMissingFromTheRequest() {
+        Task task = new Task(1L, "old title", "old description", Status.Processing, 7L, 3L);
+        when(taskRepository.findAllById(anyList())).thenReturn(List.of(task));
+
+        List<BatchResultDto> results = service.updateAll(List.of(new BatchUpdateTaskDto(1L, "new title", null, null, null, null)));
+
+        assertNull(results.get(0).error());
+        assertEquals("new title", task.getTitle());
+        assertEquals("old description", task.getDescription());
+        assertEquals(Status.Processing, task.getStatus());
+        assertEquals(7L, task.getUserId());
+        assertEquals(Status.Processing, results.get(0).task().status());
+
+        // В outbox уходит прежний статус, а не null
+        ArgumentCaptor<Object> persisted = ArgumentCaptor.forClass(Object.class);
+        verify(entityManager, atLeastOnce()).persist(persisted.capture());
+        TaskOutbox statusEvent = persisted.getAllValues().stream()
+                .filter(TaskOutbox.class::isInstance).map(TaskOutbox.class::cast)
+                .filter(outbox -> outbox.getType() == TaskOutboxType.STATUS)
+                .findFirst().orElseThrow();
+        assertEquals(Status.Processing, statusEvent.getStatus());
+
+        // Статус и исполнитель не менялись: приращения статистики взаимно гасятся
+        ArgumentCaptor<TaskStatsDelta> delta = ArgumentCaptor.forClass(TaskStatsDelta.class);
+        verify(taskStatsService).apply(delta.capture());
+        List<Long> changes = new ArrayList<>();
+        delta.getValue().forEach((userId, status, value) -> changes.add(value));
+        assertTrue(changes.isEmpty());
+    }
+
+    @Test
+    void batchCreateFlushesEveryJdbcBatch() {
+        List<CreateTaskDto> dtos = IntStream.range(0, 5)
+                .mapToObj(i -> new CreateTaskDto("title " + i, "description " + i, (long) i))
+                .toList();
+
+        List<BatchResultDto> results = service.createAll(dtos);
+
+        assertEquals(5, results.size());
+        assertTrue(results.stream().allMatch(result -> result.error() == null));
+        // Пачки по jdbcBatchSize = 2: после 2-й и 4-й задачи и остаток в конце
+        verify(entityManager, times(3)).flush();
+        verify(entityManager, times(3)).clear();
+    }
+
+    @Test
+    void batchUpdateReportsFailuresPerElementAndAppliesTheRest() {
+        Task task = new Task(1L, "title", "description", Status.Active, 7L, 0L);
+        Task stale = new Task(2L, "title", "description", Status.Active, 7L, 5L);
+        when(taskRepository.findAllById(anyList())).thenReturn(List.of(task, stale));
+
+        List<BatchResultDto> results = service.updateAll(Arrays.asList(
+                new BatchUpdateTaskDto(1L, null, null, Status.Completed, null, 0L),
+                null,
+                new BatchUpdateTaskDto(3L, "missing", null, null, null, null),
+                new BatchUpdateTaskDto(2L, "stale", null, null, null, 4L)));
+
+        assertEquals(List.of(0, 1, 2, 3), results.stream().map(BatchResultDto::index).toList());
+        assertEquals(Status.Completed, results.get(0).task().status());
+        assertEquals("Task id is required", results.get(1).error());
+        assertEquals("Task with id 3 not found", results.get(2).error());
+        assertEquals("Task with id 2 has version 5, expected 4", results.get(3).error());
+        assertEquals("title", stale.getTitle());
+    }
+
+    @Test
+    void batchRemoveReportsMissingIds() {
+        Task task = new Task(1L, "title", "description", Status.Active, 7L, 0L);
+        when(taskRepository.findAllById(anyList()))
+                .thenAnswer(invocation -> invocation.<List<Long>>getArgument(0).contains(1L) ? List.of(task) : List.of());
+
+        List<BatchResultDto> results = service.removeAll(Arrays.asList(1L, null, 3L));
+
+        assertNull(results.get(0).error());
+        assertEquals("Task id is required", results.get(1).error());
+        assertEquals("Task with id 3 not found", results.get(2).error());
+        verify(taskRepository).deleteAllByIdInBatch(List.of(1L));
+    }
+
+    @Test
+    void batchAboveLimitIsRejected() {
+        List<Long> ids = LongStream.range(0, 101).boxed().toList();
+        assertThrows(BadRequestException.class, () -> service.removeAll(ids));
+    }
+
+    @Test
+    void createCountsTheNewTaskAsActive() {
+        when(taskRepository.save(any(Task.class))).thenAnswer(invocation -> {
+            Task task = invocation.getArgument(0);
+            task.setId(1L);
+            return task;
+        });
+
+        service.create(new CreateTaskDto("title", "description", 7L));
+
+        assertEquals(List.of("7 Active 1"), appliedStats());
+    }
+
+    @Test
+    void statusChangeMovesTheTaskBetweenCounters() {
+        TaskUpdateResult result = mock(TaskUpdateResult.class);
+        when(result.getId()).thenReturn(1L);
+        when(result.getStatus()).thenReturn("Completed");
+        when(result.getUserId()).thenReturn(7L);
+        when(result.getPreviousStatus()).thenReturn("Active");
+        when(result.getPreviousUserId()).thenReturn(7L);
+        when(taskRepository.updateNonNullFields(1L, null, null, "Completed", null, null)).thenReturn(Optional.of(result));
+
+        service.update(1L, new UpdateTaskDto(null, null, Status.Completed, null, null));
+
+        assertEquals(List.of("7 Active -1", "7 Completed 1"), appliedStats());
+    }
+
+    @Test
+    void removeDecrementsTheCounterOfTheRemovedTask() {
+        TaskKeyView removed = mock(TaskKeyView.class);
+        when(removed.getStatus()).thenReturn("Processing");
+        when(removed.getUserId()).thenReturn(7L);
+        when(taskRepository.deleteTaskById(1L)).thenReturn(Optional.of(removed));
+
+        service.remove(1L);
+
+        assertEquals(List.of("7 Processing -1"), appliedStats());
+    }
+
+    private List<String> appliedStats() {
+        ArgumentCaptor<TaskStatsDelta> delta = ArgumentCaptor.forClass(TaskStatsDelta.class);
+        verify(taskStatsService).apply(delta.capture());
+        List<String> changes = new ArrayList<>();
+        delta.getValue().forEach((userId, status, value) -> changes.add(userId + " " + status + " " + value));
+        return changes;
+    }
+}
@@ -0,0 +1,57 @@
+package app.service;
+
+import app.entity.Status;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TaskStatsDeltaTests {
+
+    @Test
+    void insertAndDeleteChangeOnlyTheirOwnCounter() {
+        TaskStatsDelta delta = new TaskStatsDelta()
+                .added(1L, Status.Active)
+                .added(1L, Status.Active)
+                .removed(2L, Status.Completed);
+
+        assertEquals(List.of("1 Active +2", "2 Completed -1"), changes(delta));
+    }
+
+    @Test
+    void statusChangeMovesOneTaskBetweenCounters() {
+        TaskStatsDelta delta = new TaskStatsDelta().moved(1L, Status.Active, 1L, Status.Completed);
+
+        assertEquals(List.of("1 Active -1", "1 Completed +1"), changes(delta));
+    }
+
+    @Test
+    void updateWithoutStatusOrUserChangeLeavesCountersAlone() {
+        TaskStatsDelta delta = new TaskStatsDelta()
+                .moved(1L, Status.Active, 1L, Status.Active)
+                // Задача создана и удалена в одной операции: приращения гасятся
+                .added(3L, Status.Processing)
+                .removed(3L, Status.Processing);
+
+        assertEquals(List.of(), changes(delta));
+    }
+
+    @Test
+    void reassignmentAndUnassignedTasksAreCountedInAFixedOrder() {
+        TaskStatsDelta delta = new TaskStatsDelta()
+                .moved(5L, Status.Processing, null, Status.Processing)
+                .added(2L, null)
+                .moved(null, Status.Active, 2L, Status.Active);
+
+        // Сначала null, затем по возрастанию userId и статуса: параллельные транзакции берут строки в одном порядке
+        assertEquals(List.of("null Active -1", "null Processing +1", "2 null +1", "2 Active +1", "5 Processing -1"), changes(delta));
+    }
+
+    private static List<String> changes(TaskStatsDelta delta) {
+        List<String> changes = new ArrayList<>();
+        delta.forEach((userId, status, value) -> changes.add(userId + " " + status + " " + (value > 0 ? "+" : "") + value));
+        return changes;
+    }
+}
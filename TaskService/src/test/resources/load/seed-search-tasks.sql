@@ -0,0 +1,42 @@
+-- Наполнение tasks для замеров поиска: psql -h localhost -p 5433 -U aop -d aop_db -v rows=5000000 -f seed-search-tasks.sql
+-- Слова выбираются со степенным распределением: первое слово словаря есть в большинстве задач, последние - примерно в одной
+-- из сотни, номер тикета - в десятках; это даёт запросы разной селективности (см. SearchLoadHarness).
+\if :{?rows}
+\else
+    \set rows 5000000
+\endif
+
+CREATE TEMP TABLE search_words AS
+SELECT string_to_array(
+    'report invoice deploy release backup review migration database server client payment order customer ' ||
+    'ticket support incident outage alert monitor metric dashboard export import sync cache queue kafka ' ||
+    'email notification schedule meeting budget forecast audit security password access token certificate ' ||
+    'network firewall proxy gateway cluster node replica shard index vacuum query plan latency throughput ' ||
+    'frontend backend mobile android ios design mockup prototype feedback survey roadmap sprint retro ' ||
+    'onboarding contract legal compliance privacy gdpr vendor supplier warehouse shipment delivery return ' ||
+    'refund discount coupon campaign newsletter banner landing seo analytics funnel cohort retention churn ' ||
+    'квартал отчёт счёт релиз сервер клиент платёж заказ поставка склад договор аудит доступ пароль',
+    ' ') AS words;
+
+-- power(random(), 3) смещает выбор к началу словаря
+INSERT INTO tasks (id, title, description, status, user_id)
+SELECT base + g,
+       words[1 + floor(power(random(), 3) * cardinality(words))::int] || ' ' ||
+       words[1 + floor(power(random(), 3) * cardinality(words))::int] || ' #' || g,
+       'Please ' || words[1 + floor(power(random(), 3) * cardinality(words))::int] ||
+       ' the ' || words[1 + floor(power(random(), 3) * cardinality(words))::int] ||
+       ' for ' || words[1 + floor(power(random(), 3) * cardinality(words))::int] || ', see ticket ' || (g % 100000),
+       (ARRAY ['Active', 'Processing', 'Completed'])[1 + g % 3],
+       1 + g % 10000
+FROM generate_series(1, :rows) AS g,
+     search_words,
+     (SELECT COALESCE(max(id), 0) AS base FROM tasks) AS seed;
+
+-- Hibernate (pooled, allocationSize 50) не должен выдать уже занятые id
+SELECT setval('task_id_seq', (SELECT max(id) FROM tasks) + 50);
+
+-- Вставка мимо сервиса: сводка пересчитывается целиком, как при ночной сверке
+DELETE FROM task_stats;
+INSERT INTO task_stats (user_id, status, task_count) SELECT user_id, status, count(*) FROM tasks GROUP BY user_id, status;
+
+ANALYZE tasks;